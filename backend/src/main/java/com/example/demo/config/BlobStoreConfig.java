@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import com.example.demo.services.BlobStore;
+import com.example.demo.services.FileSystemBlobStore;
+import com.example.demo.services.S3BlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+public class BlobStoreConfig {
+
+    @Value("${app.images.dir:data/images}")
+    private String dir;
+
+    @Value("${app.images.s3.endpoint:}")
+    private String endpoint;
+
+    // What browsers use to reach the bucket, if not the same address as the backend uses
+    @Value("${app.images.s3.publicEndpoint:}")
+    private String publicEndpoint;
+
+    @Value("${app.images.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.images.s3.bucket:car-images}")
+    private String bucket;
+
+    @Value("${app.images.s3.accessKey:}")
+    private String accessKey;
+
+    @Value("${app.images.s3.secretKey:}")
+    private String secretKey;
+
+    @Value("${app.images.s3.partSize:8388608}")
+    private long partSize;
+
+    @Value("${app.images.s3.presignTtlSeconds:3600}")
+    private long presignTtlSeconds;
+
+    // filesystem keeps images on local disk (or a shared volume); s3 lets any number of
+    // replicas share them through a bucket
+    @Bean
+    public BlobStore blobStore(@Value("${app.images.store:filesystem}") String store) throws IOException {
+        switch (store) {
+            case "filesystem":
+                return new FileSystemBlobStore(Paths.get(dir).toAbsolutePath().normalize());
+            case "s3":
+                if (endpoint.isBlank() || accessKey.isBlank() || secretKey.isBlank()) {
+                    throw new IllegalStateException("app.images.store=s3 needs app.images.s3.endpoint, accessKey and secretKey");
+                }
+                S3BlobStore s3 = new S3BlobStore(URI.create(endpoint),
+                        URI.create(publicEndpoint.isBlank() ? endpoint : publicEndpoint),
+                        region, bucket, accessKey, secretKey, partSize, Duration.ofSeconds(presignTtlSeconds));
+                s3.ensureBucket();
+                return s3;
+            default:
+                throw new IllegalStateException("Unknown app.images.store: " + store);
+        }
+    }
+}
@@ -102,12 +102,23 @@
 package com.example.demo.controllers;
 
 import com.example.demo.models.Car;
+import com.example.demo.payload.CarImportReport;
 import com.example.demo.payload.MessageResponse;
 import com.example.demo.repositories.CarRepository;
+import com.example.demo.services.CarCatalogService;
+import com.example.demo.services.CarImportService;
+import com.example.demo.services.ImageGarbageCollector;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/cars")
@@ -117,11 +128,20 @@ public class AdminCarController {
     @Autowired
     private CarRepository carRepository;
 
+    @Autowired
+    private CarCatalogService carCatalogService;
+
+    @Autowired
+    private CarImportService carImportService;
+
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+
     // ✅ Add Car (JSON body)
     @PostMapping
     public ResponseEntity<?> addCar(@RequestBody Car carData) {
         carData.setAvailable(true); // default available when adding a new car
-        carRepository.save(carData);
+        carCatalogService.save(carData);
         return ResponseEntity.ok(carData);
     }
 
@@ -134,12 +154,12 @@ public class AdminCarController {
             if (carData.getType() != null) existingCar.setType(carData.getType());
             if (carData.getPricePerDay() != null) existingCar.setPricePerDay(carData.getPricePerDay());
 
-            // ✅ use isAvailable() instead of getAvailable()
-            existingCar.setAvailable(carData.isAvailable());
+            // available follows the bookings (FleetStatusProcessor); admins only take cars in and out of service
+            existingCar.setOutOfService(carData.isOutOfService());
 
             if (carData.getImageUrl() != null) existingCar.setImageUrl(carData.getImageUrl());
 
-            carRepository.save(existingCar);
+            carCatalogService.save(existingCar);
             return ResponseEntity.ok(existingCar);
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -148,8 +168,53 @@ public class AdminCarController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCar(@PathVariable Long id) {
         return carRepository.findById(id).map(car -> {
-            carRepository.delete(car);
+            carCatalogService.delete(car);
             return ResponseEntity.ok(new MessageResponse("Car deleted successfully"));
         }).orElse(ResponseEntity.notFound().build());
     }
+
+    // Bulk import: CSV with a header row (make,model,type,pricePerDay[,available][,imageUrl])
+    // or NDJSON with the same fields. Bad rows are skipped and listed; dryRun only validates.
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importCars(@RequestParam("file") MultipartFile file,
+                                        @RequestParam(required = false) String format,
+                                        @RequestParam(defaultValue = "false") boolean dryRun) {
+        CarImportService.Format importFormat = importFormat(format, file.getOriginalFilename());
+        if (importFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Unknown file format, use format=csv or format=ndjson"
+            ));
+        }
+        try (InputStream in = file.getInputStream()) {
+            CarImportReport report = carImportService.importCars(in, importFormat, dryRun);
+            return ResponseEntity.ok(Map.of(
+                    "message", dryRun ? "Import file checked" : "Cars imported",
+                    "data", report
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not read file: " + e.getMessage()));
+        }
+    }
+
+    // Deletes stored images no car uses any more; runs in the background (progress under
+    // /api/admin/metrics/image-gc)
+    @PostMapping("/images/gc")
+    public ResponseEntity<?> collectImages() {
+        boolean started = imageGarbageCollector.start();
+        return ResponseEntity.accepted().body(Map.of(
+                "message", started ? "Image GC started" : "Image GC is already running",
+                "data", imageGarbageCollector.getStats()
+        ));
+    }
+
+    private static CarImportService.Format importFormat(String format, String fileName) {
+        String hint = format != null ? format : fileName == null ? "" : fileName.substring(fileName.lastIndexOf('.') + 1);
+        return switch (hint.toLowerCase(Locale.ROOT)) {
+            case "csv" -> CarImportService.Format.CSV;
+            case "ndjson", "jsonl" -> CarImportService.Format.NDJSON;
+            default -> null;
+        };
+    }
 }
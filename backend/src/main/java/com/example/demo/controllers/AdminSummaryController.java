@@ -0,0 +1,27 @@
+package com.example.demo.controllers;
+
+import com.example.demo.services.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/summary")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminSummaryController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // Totals, fleet utilization, today's pickups/returns and revenue for the dashboard header
+    @GetMapping
+    public ResponseEntity<?> getSummary() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Dashboard summary fetched successfully",
+            "data", dashboardService.getSummary()
+        ));
+    }
+}
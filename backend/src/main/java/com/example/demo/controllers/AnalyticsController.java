@@ -0,0 +1,78 @@
+package com.example.demo.controllers;
+
+import com.example.demo.services.AnalyticsService;
+import com.example.demo.services.RollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    // Utilization and revenue per car type for [from, to): ?from=&to=&granularity=day|month
+    @GetMapping("/types")
+    public ResponseEntity<?> getTypeUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        String error = validate(from, to, granularity);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        return ResponseEntity.ok(Map.of(
+            "message", "Utilization by type fetched successfully",
+            "data", analyticsService.byType(from, to, granularity.equals("month"))
+        ));
+    }
+
+    // Same report per car
+    @GetMapping("/cars")
+    public ResponseEntity<?> getCarUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        String error = validate(from, to, granularity);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        return ResponseEntity.ok(Map.of(
+            "message", "Utilization by car fetched successfully",
+            "data", analyticsService.byCar(from, to, granularity.equals("month"))
+        ));
+    }
+
+    // Recomputes the rollup tables from the bookings table (backfill or drift repair)
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Rollups rebuilt successfully",
+            "data", rollupService.rebuild()
+        ));
+    }
+
+    private static String validate(LocalDate from, LocalDate to, String granularity) {
+        if (!to.isAfter(from)) {
+            return "'to' must be after 'from'";
+        }
+        if (from.plusDays(AnalyticsService.MAX_REPORT_DAYS).isBefore(to)) {
+            return "Range cannot be longer than " + AnalyticsService.MAX_REPORT_DAYS + " days";
+        }
+        if (!granularity.equals("day") && !granularity.equals("month")) {
+            return "granularity must be 'day' or 'month'";
+        }
+        return null;
+    }
+}
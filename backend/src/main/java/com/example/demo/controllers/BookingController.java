@@ -171,19 +171,39 @@ package com.example.demo.controllers;
 import com.example.demo.models.Booking;
 import com.example.demo.models.Car;
 import com.example.demo.models.User;
+import com.example.demo.payload.BookingSummary;
 import com.example.demo.repositories.BookingRepository;
 import com.example.demo.repositories.CarRepository;
 import com.example.demo.repositories.UserRepository;
 import com.example.demo.security.UserDetailsImpl;
+import com.example.demo.services.AvailabilityService;
+import com.example.demo.services.BookingHold;
+import com.example.demo.services.BookingHoldService;
+import com.example.demo.services.BookingPipeline;
+import com.example.demo.services.BookingExportService;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.IdempotencyService;
+import com.example.demo.utils.Keyset;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -199,13 +219,51 @@ public class BookingController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private BookingHoldService bookingHoldService;
+
+    @Autowired
+    private BookingPipeline bookingPipeline;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Value("${app.booking.pipeline.timeoutMs:5000}")
+    private long pipelineTimeoutMs;
+
     // ✅ FIXED: Support both JSON body and query parameters
     @PostMapping
     public ResponseEntity<?> createBooking(@RequestBody(required = false) Map<String, Object> bookingData,
                                          @RequestParam(required = false) Long carId,
                                          @RequestParam(required = false) String startDate,
                                          @RequestParam(required = false) String endDate,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                          Authentication authentication) {
+        if (idempotencyKey == null) {
+            return doCreateBooking(bookingData, carId, startDate, endDate, authentication);
+        }
+
+        // A retried request replays the first response instead of booking twice
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        String fingerprint = bookingData != null
+                ? bookingData.get("carId") + "|" + bookingData.get("startDate") + "|" + bookingData.get("endDate")
+                : carId + "|" + startDate + "|" + endDate;
+        return idempotencyService.execute(userDetails.getId(), idempotencyKey, fingerprint,
+                () -> doCreateBooking(bookingData, carId, startDate, endDate, authentication));
+    }
+
+    private ResponseEntity<?> doCreateBooking(Map<String, Object> bookingData, Long carId,
+                                              String startDate, String endDate,
+                                              Authentication authentication) {
         try {
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
             User user = userRepository.findById(userDetails.getId())
@@ -218,9 +276,10 @@ public class BookingController {
 
             if (bookingData != null) {
                 // JSON body format
-                actualCarId = Long.valueOf(bookingData.get("carId").toString());
-                actualStartDate = bookingData.get("startDate").toString();
-                actualEndDate = bookingData.get("endDate").toString();
+                Object rawCarId = bookingData.get("carId");
+                actualCarId = rawCarId == null ? null : Long.valueOf(rawCarId.toString());
+                actualStartDate = Objects.toString(bookingData.get("startDate"), null);
+                actualEndDate = Objects.toString(bookingData.get("endDate"), null);
             } else {
                 // Query parameter format
                 actualCarId = carId;
@@ -232,13 +291,6 @@ public class BookingController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Missing required parameters"));
             }
 
-            Car car = carRepository.findById(actualCarId)
-                    .orElseThrow(() -> new RuntimeException("Car not found"));
-
-            if (!car.isAvailable()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Car is not available"));
-            }
-
             LocalDate start = LocalDate.parse(actualStartDate);
             LocalDate end = LocalDate.parse(actualEndDate);
             LocalDate today = LocalDate.now();
@@ -252,43 +304,74 @@ public class BookingController {
                 return ResponseEntity.badRequest().body(Map.of("error", "End date must be after start date"));
             }
 
-            // Create and save booking
-            Booking booking = new Booking(start, end, user, car);
-            Booking savedBooking = bookingRepository.save(booking);
+            // Checked against the in-memory index, so a clash never reaches the database
+            if (!availabilityService.isAvailable(actualCarId, start, end)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Car is not available for the selected dates"));
+            }
 
-            // Update car availability
-            car.setAvailable(false);
-            carRepository.save(car);
+            Car car = carRepository.findById(actualCarId).orElse(null);
+            if (car == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "Car not found"));
+            }
+            if (car.isOutOfService()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Car is out of service"));
+            }
+
+            // Re-checked under the car's lock (or by the partition writer in pipeline mode),
+            // a concurrent request may have won the race
+            Optional<Booking> result = bookingPipeline.isEnabled()
+                    ? bookingPipeline.book(user, car, start, end, pipelineTimeoutMs)
+                    : bookingService.book(user, car, start, end);
+            Booking savedBooking = result.orElse(null);
+            if (savedBooking == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Car is not available for the selected dates"));
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Booking created successfully");
-            response.put("data", savedBooking);
+            response.put("data", BookingSummary.from(savedBooking));
             return ResponseEntity.ok(response);
 
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(503).body(Map.of("error", "Booking service is busy, please retry"));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid booking request: " + e.getMessage()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                return ResponseEntity.status(503).body(Map.of("error", "Booking service is busy, please retry"));
+            }
+            return ResponseEntity.status(500).body(Map.of("error", "Error creating booking: " + e.getCause().getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Error creating booking: " + e.getMessage()));
+            // Not a verdict on the request (database down, writer failed...): a 5xx so the
+            // Idempotency-Key isn't pinned to it and a retry runs again
+            return ResponseEntity.status(500).body(Map.of("error", "Error creating booking: " + e.getMessage()));
         }
     }
 
     // ✅ FIXED: Add BOTH endpoints to support different frontend calls
     @GetMapping("/me")
-    public ResponseEntity<?> getMyBookingsMe(Authentication authentication) {
-        return getMyBookings(authentication);
+    public ResponseEntity<?> getMyBookingsMe(@RequestParam(required = false) Long after,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String sort,
+                                             Authentication authentication) {
+        return getMyBookings(after, limit, sort, authentication);
     }
 
+    // Paged by id: ?after=<last id of previous page>&limit=&sort=id|-id
     @GetMapping("/my-bookings")
-    public ResponseEntity<?> getMyBookings(Authentication authentication) {
+    public ResponseEntity<?> getMyBookings(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String sort,
+                                           Authentication authentication) {
         try {
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            User user = userRepository.findById(userDetails.getId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
 
-            List<Booking> bookings = bookingRepository.findByUser(user);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Bookings fetched successfully");
-            response.put("data", bookings);
-            return ResponseEntity.ok(response);
+            Keyset page = Keyset.of(after, limit, sort);
+            List<BookingSummary> bookings = page.isDescending()
+                    ? bookingRepository.findUserSummariesBefore(userDetails.getId(), page.cursor(), page.pageable())
+                    : bookingRepository.findUserSummariesAfter(userDetails.getId(), page.cursor(), page.pageable());
+
+            return ResponseEntity.ok(page.response("Bookings fetched successfully", bookings, BookingSummary::id));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Error fetching bookings: " + e.getMessage()));
@@ -297,20 +380,123 @@ public class BookingController {
 
     // Rest of your methods remain the same...
     @GetMapping("/all")
-    public ResponseEntity<?> getAllBookings() {
+    public ResponseEntity<?> getAllBookings(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String sort) {
         try {
-            List<Booking> bookings = bookingRepository.findAll();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "All bookings fetched successfully");
-            response.put("data", bookings);
-            return ResponseEntity.ok(response);
+            Keyset page = Keyset.of(after, limit, sort);
+            List<BookingSummary> bookings = page.isDescending()
+                    ? bookingRepository.findSummariesBefore(page.cursor(), page.pageable())
+                    : bookingRepository.findSummariesAfter(page.cursor(), page.pageable());
+
+            return ResponseEntity.ok(page.response("All bookings fetched successfully", bookings, BookingSummary::id));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Error fetching bookings: " + e.getMessage()));
         }
     }
 
+    // Reserve a car's dates for a few minutes while the user finishes checkout
+    @PostMapping("/holds")
+    public ResponseEntity<?> createHold(@RequestBody Map<String, Object> holdData, Authentication authentication) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+            if (holdData.get("carId") == null || holdData.get("startDate") == null || holdData.get("endDate") == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Missing required parameters"));
+            }
+            Long carId = Long.valueOf(holdData.get("carId").toString());
+            LocalDate start = LocalDate.parse(holdData.get("startDate").toString());
+            LocalDate end = LocalDate.parse(holdData.get("endDate").toString());
+
+            if (start.isBefore(LocalDate.now())) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Start date cannot be in the past"));
+            }
+            if (!end.isAfter(start)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "End date must be after start date"));
+            }
+            Car car = carRepository.findById(carId).orElse(null);
+            if (car == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "Car not found"));
+            }
+            if (car.isOutOfService()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Car is out of service"));
+            }
+
+            return bookingHoldService.place(userDetails.getId(), carId, start, end)
+                    .<ResponseEntity<?>>map(hold -> ResponseEntity.ok(Map.of(
+                            "message", "Hold placed successfully",
+                            "data", holdResponse(hold))))
+                    .orElseGet(() -> ResponseEntity.badRequest().body(
+                            Map.of("error", "Car is not available for the selected dates")));
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Error placing hold: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable String holdId, Authentication authentication) {
+        try {
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+            BookingHold hold = bookingHoldService.get(holdId)
+                    .filter(h -> h.getUserId().equals(userDetails.getId()))
+                    .orElse(null);
+            if (hold == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "Hold not found or expired"));
+            }
+
+            User user = userRepository.findById(userDetails.getId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            Car car = carRepository.findById(hold.getCarId())
+                    .orElseThrow(() -> new RuntimeException("Car not found"));
+            // Taken out of service while the customer was checking out
+            if (car.isOutOfService()) {
+                bookingHoldService.release(hold);
+                return ResponseEntity.badRequest().body(Map.of("error", "Car is out of service"));
+            }
+
+            return bookingHoldService.confirm(hold, user, car)
+                    .<ResponseEntity<?>>map(booking -> ResponseEntity.ok(Map.of(
+                            "message", "Booking created successfully",
+                            "data", BookingSummary.from(booking))))
+                    .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Hold not found or expired")));
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Error confirming hold: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId, Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        BookingHold hold = bookingHoldService.get(holdId)
+                .filter(h -> h.getUserId().equals(userDetails.getId()))
+                .orElse(null);
+        if (hold == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Hold not found or expired"));
+        }
+
+        bookingHoldService.release(hold);
+        return ResponseEntity.ok(Map.of("message", "Hold released successfully"));
+    }
+
+    // Full booking history for finance, streamed row by row (format=ndjson|csv)
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = format.equalsIgnoreCase("csv");
+        StreamingResponseBody body = csv ? bookingExportService::writeCsv : bookingExportService::writeNdjson;
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"bookings." + (csv ? "csv" : "ndjson") + "\"")
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .body(body);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> cancelBooking(@PathVariable Long id, Authentication authentication) {
         try {
@@ -318,18 +504,14 @@ public class BookingController {
             User user = userRepository.findById(userDetails.getId())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
-            Booking booking = bookingRepository.findById(id)
+            Booking booking = bookingRepository.findWithCarAndUserById(id)
                     .orElseThrow(() -> new RuntimeException("Booking not found"));
 
             if (!booking.getUser().getId().equals(user.getId())) {
                 return ResponseEntity.status(403).body(Map.of("error", "Access denied"));
             }
 
-            Car car = booking.getCar();
-            car.setAvailable(true);
-            carRepository.save(car);
-
-            bookingRepository.delete(booking);
+            bookingService.cancel(booking);
             
             return ResponseEntity.ok(Map.of("message", "Booking cancelled successfully"));
 
@@ -337,4 +519,14 @@ public class BookingController {
             return ResponseEntity.badRequest().body(Map.of("error", "Error cancelling booking: " + e.getMessage()));
         }
     }
+
+    private Map<String, Object> holdResponse(BookingHold hold) {
+        return Map.of(
+                "holdId", hold.getId(),
+                "carId", hold.getCarId(),
+                "startDate", hold.getStartDate(),
+                "endDate", hold.getEndDate(),
+                "expiresAt", hold.getExpiresAt()
+        );
+    }
 }
\ No newline at end of file
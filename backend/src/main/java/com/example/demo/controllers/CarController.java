@@ -1,15 +1,35 @@
 package com.example.demo.controllers;
 
 import com.example.demo.models.Car;
+import com.example.demo.payload.CarFacets;
+import com.example.demo.payload.PriceQuote;
+import com.example.demo.payload.SearchSuggestion;
 import com.example.demo.repositories.CarRepository;
+import com.example.demo.services.CarCatalogService;
+import com.example.demo.services.CarFacetService;
+import com.example.demo.services.CarSearchIndex;
+import com.example.demo.services.CatalogResponseCache;
+import com.example.demo.services.ImageStore;
+import com.example.demo.services.PricingService;
+import com.example.demo.utils.Keyset;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/cars")
@@ -18,39 +38,190 @@ public class CarController {
     @Autowired
     private CarRepository carRepository;
 
-    // Get all cars
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private CarCatalogService carCatalogService;
+
+    @Autowired
+    private CarSearchIndex carSearchIndex;
+
+    @Autowired
+    private CarFacetService carFacetService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    // Get all cars, paged by id: ?after=<last id of previous page>&limit=&sort=id|-id
     @GetMapping
-    public ResponseEntity<?> getAllCars() {
-        List<Car> cars = carRepository.findAll();
-        return ResponseEntity.ok(Map.of(
-                "message", "Cars fetched successfully",
-                "data", cars
-        ));
+    public ResponseEntity<?> getAllCars(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(required = false) String sort,
+                                        WebRequest request) {
+        return cachedPage(request, Keyset.of(after, limit, sort), false, "Cars fetched successfully");
     }
 
-    // Get available cars only
+    // Get available cars only, paged the same way
     @GetMapping("/available")
-    public ResponseEntity<?> getAvailableCars() {
-        List<Car> cars = carRepository.findByAvailableTrue();
+    public ResponseEntity<?> getAvailableCars(@RequestParam(required = false) Long after,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String sort,
+                                              WebRequest request) {
+        return cachedPage(request, Keyset.of(after, limit, sort), true, "Available cars fetched successfully");
+    }
+
+    // Search cars by type, price range, make/model text and free date range (paginated)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCars(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String q,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        if ((start == null) != (end == null)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Both startDate and endDate are required to filter by dates"
+            ));
+        }
+        if (start != null && !end.isAfter(start)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "End date must be after start date"
+            ));
+        }
+
+        String text = q == null || q.isBlank() ? null : "%" + q.trim().toLowerCase() + "%";
+        String carType = type == null || type.isBlank() ? null : type;
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100), Sort.by("id"));
+
+        Page<Car> result = carRepository.search(carType, minPrice, maxPrice, text, start, end, pageRequest);
         return ResponseEntity.ok(Map.of(
-                "message", "Available cars fetched successfully",
-                "data", cars
+                "message", "Cars fetched successfully",
+                "data", result.getContent(),
+                "page", result.getNumber(),
+                "size", result.getSize(),
+                "totalElements", result.getTotalElements(),
+                "totalPages", result.getTotalPages()
         ));
     }
 
+    // Completions for the word being typed, e.g. ?q=toyota co -> Corolla, Camry
+    @GetMapping("/typeahead")
+    public ResponseEntity<?> typeahead(@RequestParam String q,
+                                       @RequestParam(defaultValue = "10") int limit,
+                                       WebRequest request) {
+        return withCatalogETag(request, () -> {
+            List<SearchSuggestion> suggestions = carSearchIndex.suggest(q, Math.min(Math.max(limit, 1), 20));
+            return ResponseEntity.ok(Map.of(
+                    "message", "Suggestions fetched successfully",
+                    "data", suggestions
+            ));
+        });
+    }
+
+    // Make/model/type word search from the in-memory index, best matches first
+    @GetMapping("/search/text")
+    public ResponseEntity<?> searchText(@RequestParam String q,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        WebRequest request) {
+        return withCatalogETag(request, () -> {
+            CarSearchIndex.Hits hits = carSearchIndex.search(q, Math.min(Math.max(limit, 1), 100));
+            return ResponseEntity.ok(Map.of(
+                    "message", "Cars fetched successfully",
+                    "data", carCatalogService.findAllById(hits.carIds()),
+                    "total", hits.total()
+            ));
+        });
+    }
+
+    // Filter counts: ?type=SUV&type=Sedan&price=50-100&available=true
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(@RequestParam(required = false) List<String> type,
+                                       @RequestParam(required = false) String price,
+                                       @RequestParam(required = false) Boolean available,
+                                       WebRequest request) {
+        if (price != null && !carFacetService.getPriceBuckets().contains(price)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Unknown price range, expected one of " + carFacetService.getPriceBuckets()
+            ));
+        }
+        return withCatalogETag(request, () -> {
+            CarFacets facets = carFacetService.count(type, price, available);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Car facets fetched successfully",
+                    "data", facets
+            ));
+        });
+    }
+
     // Get car by ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCarById(@PathVariable Long id) {
-        return carRepository.findById(id).map(car ->
+    public ResponseEntity<?> getCarById(@PathVariable Long id, WebRequest request) {
+        return withCatalogETag(request, () -> carCatalogService.findById(id).<ResponseEntity<?>>map(car ->
                 ResponseEntity.ok(Map.of(
                         "message", "Car found",
                         "data", car
                 ))
         ).orElse(ResponseEntity.status(404).body(Map.of(
                 "error", "Car not found"
+        ))));
+    }
+
+    // Price for renting this car from start (inclusive) to end (exclusive)
+    @GetMapping("/{id}/quote")
+    public ResponseEntity<?> getQuote(@PathVariable Long id,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        String error = validateQuoteRange(start, end);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        return pricingService.quote(id, start, end).<ResponseEntity<?>>map(quote ->
+                ResponseEntity.ok(Map.of(
+                        "message", "Quote calculated successfully",
+                        "data", quote
+                ))
+        ).orElse(ResponseEntity.status(404).body(Map.of(
+                "error", "Car not found"
         )));
     }
 
+    // Quotes a whole search result page in one call: ?ids=1,2,3&start=&end=
+    @GetMapping("/quotes")
+    public ResponseEntity<?> getQuotes(@RequestParam List<Long> ids,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        String error = validateQuoteRange(start, end);
+        if (error == null && ids.size() > 100) {
+            error = "At most 100 cars can be quoted at once";
+        }
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+        List<PriceQuote> quotes = pricingService.quoteAll(ids, start, end);
+        return ResponseEntity.ok(Map.of(
+                "message", "Quotes calculated successfully",
+                "data", quotes
+        ));
+    }
+
+    private static String validateQuoteRange(LocalDate start, LocalDate end) {
+        if (!end.isAfter(start)) {
+            return "End date must be after start date";
+        }
+        if (start.plusDays(PricingService.MAX_QUOTE_DAYS).isBefore(end)) {
+            return "Rental period cannot be longer than " + PricingService.MAX_QUOTE_DAYS + " days";
+        }
+        return null;
+    }
+
     // Add new car (with optional image upload)
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<?> createCar(
@@ -58,7 +229,7 @@ public class CarController {
             @RequestParam("model") String model,
             @RequestParam("type") String type,
             @RequestParam("pricePerDay") Double pricePerDay,
-            @RequestParam(value = "available", defaultValue = "true") boolean available,
+            @RequestParam(value = "outOfService", defaultValue = "false") boolean outOfService,
             @RequestParam(value = "file", required = false) MultipartFile file) {
 
         Car car = new Car();
@@ -66,18 +237,13 @@ public class CarController {
         car.setModel(model);
         car.setType(type);
         car.setPricePerDay(pricePerDay);
-        car.setAvailable(available);
+        car.setOutOfService(outOfService);
 
         if (file != null && !file.isEmpty()) {
             try {
-                String folder = "src/main/resources/static/images/cars/";
-                Files.createDirectories(Paths.get(folder));
-
-                String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-                Path path = Paths.get(folder + fileName);
-                Files.write(path, file.getBytes());
-
-                car.setImageUrl("/images/cars/" + fileName);
+                car.setImageUrl(imageStore.store(file));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
             } catch (IOException e) {
                 return ResponseEntity.status(500).body(Map.of(
                         "error", "Error saving image: " + e.getMessage()
@@ -85,7 +251,7 @@ public class CarController {
             }
         }
 
-        Car savedCar = carRepository.save(car);
+        Car savedCar = carCatalogService.save(car);
         return ResponseEntity.ok(Map.of(
                 "message", "Car created successfully",
                 "data", savedCar
@@ -100,7 +266,7 @@ public class CarController {
             @RequestParam("model") String model,
             @RequestParam("type") String type,
             @RequestParam("pricePerDay") Double pricePerDay,
-            @RequestParam("available") boolean available,
+            @RequestParam(value = "outOfService", required = false) Boolean outOfService,
             @RequestParam(value = "file", required = false) MultipartFile file) {
 
         return carRepository.findById(id).map(car -> {
@@ -108,18 +274,14 @@ public class CarController {
             car.setModel(model);
             car.setType(type);
             car.setPricePerDay(pricePerDay);
-            car.setAvailable(available);
+            // available follows the bookings (FleetStatusProcessor); admins only take cars in and out of service
+            if (outOfService != null) car.setOutOfService(outOfService);
 
             if (file != null && !file.isEmpty()) {
                 try {
-                    String folder = "src/main/resources/static/images/cars/";
-                    Files.createDirectories(Paths.get(folder));
-
-                    String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-                    Path path = Paths.get(folder + fileName);
-                    Files.write(path, file.getBytes());
-
-                    car.setImageUrl("/images/cars/" + fileName);
+                    car.setImageUrl(imageStore.store(file));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
                 } catch (IOException e) {
                     return ResponseEntity.status(500).body(Map.of(
                             "error", "Error saving image: " + e.getMessage()
@@ -127,7 +289,7 @@ public class CarController {
                 }
             }
 
-            Car updatedCar = carRepository.save(car);
+            Car updatedCar = carCatalogService.save(car);
             return ResponseEntity.ok(Map.of(
                     "message", "Car updated successfully",
                     "data", updatedCar
@@ -141,8 +303,67 @@ public class CarController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCar(@PathVariable Long id) {
         return carRepository.findById(id).map(car -> {
-            carRepository.delete(car);
+            carCatalogService.delete(car);
             return ResponseEntity.ok(Map.of("message", "Car deleted successfully"));
         }).orElse(ResponseEntity.status(404).body(Map.of("error", "Car not found")));
     }
+
+    // Catalog reads are tagged with the catalog version, so a client that already has the
+    // current data gets a 304 before any query or serialization happens. no-cache makes
+    // browsers revalidate every time instead of guessing a freshness lifetime.
+    private ResponseEntity<?> withCatalogETag(WebRequest request, Supplier<ResponseEntity<?>> handler) {
+        return withCatalogETag(request, carCatalogService.getETag(), handler);
+    }
+
+    private ResponseEntity<?> withCatalogETag(WebRequest request, String etag, Supplier<ResponseEntity<?>> handler) {
+        // checkNotModified has already set the status and the ETag header
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        ResponseEntity<?> response = handler.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(response.getBody());
+    }
+
+    // Car list pages are served as pre-serialized (and pre-gzipped) bytes for the catalog
+    // version the ETag was built from
+    private ResponseEntity<?> cachedPage(WebRequest request, Keyset page, boolean availableOnly, String message) {
+        long version = carCatalogService.getVersion();
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = carCatalogService.getETag(version, gzip ? "gzip" : null);
+        return withCatalogETag(request, etag, () -> {
+            CatalogResponseCache.Body body = catalogResponseCache.page(version, page, availableOnly, message);
+            byte[] bytes = gzip ? body.gzip() : body.json();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(bytes.length)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(bytes);
+        });
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.matches("q=0(\\.0*)?")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
 }
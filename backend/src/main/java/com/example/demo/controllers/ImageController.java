@@ -0,0 +1,149 @@
+package com.example.demo.controllers;
+
+import com.example.demo.services.ImageStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+// Serves car images from the image store (and the images bundled with the app). With an S3
+// blob store, clients are redirected to the bucket. Local small images come from an in-memory
+// LRU; larger files are handed to Tomcat's sendfile so the bytes go from the page cache to the
+// socket without passing through the JVM.
+@RestController
+@RequestMapping("/images")
+public class ImageController {
+
+    // Tomcat's sendfile contract (see org.apache.coyote.Constants / DefaultServlet)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    private static final String BUNDLED = CacheControl.maxAge(Duration.ofDays(1)).cachePublic().getHeaderValue();
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @GetMapping("/**")
+    public void getImage(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String key = request.getRequestURI().substring(request.getContextPath().length() + ImageStore.URL_PREFIX.length());
+        URI direct = imageStore.directUrl(key);
+        if (direct != null) {
+            // The bytes come straight from the blob store. The redirect can be cached for as
+            // long as the URL stays valid.
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(imageStore.getDirectUrlValidity()).cachePublic().getHeaderValue());
+            response.setStatus(HttpServletResponse.SC_FOUND);
+            response.setHeader(HttpHeaders.LOCATION, direct.toString());
+            return;
+        }
+        Resource image = imageStore.find(key);
+        if (image == null) {
+            // Not sendError: the /error dispatch would be rejected by the security chain
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = image.contentLength();
+        boolean hashed = ImageStore.isContentAddressed(key);
+        String etag = "\"" + (hashed ? key.substring(6, key.lastIndexOf('.')) : length + "-" + image.lastModified()) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, hashed ? IMMUTABLE : BUNDLED);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Handles If-None-Match and If-Modified-Since, and sets ETag and Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, image.lastModified())) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeMatches(request, etag, image.lastModified())) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Multipart byte ranges aren't worth it for images; the whole file is a valid answer
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range starts past the end of the file");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        byte[] cached = imageStore.readCached(key, image, length);
+        if (cached != null) {
+            response.getOutputStream().write(cached, (int) start, (int) count);
+        } else if (image.isFile() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file itself once this method returns
+            request.setAttribute(SENDFILE_FILENAME, image.getFile().getAbsolutePath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else if (image.isFile()) {
+            try (FileChannel file = FileChannel.open(image.getFile().toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position <= end) {
+                    position += file.transferTo(position, end + 1 - position, out);
+                }
+            }
+        } else {
+            // Bundled image inside the jar
+            try (InputStream in = image.getInputStream()) {
+                in.skipNBytes(start);
+                OutputStream out = response.getOutputStream();
+                byte[] buffer = new byte[8192];
+                long remaining = count;
+                while (remaining > 0) {
+                    int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (n < 0) break;
+                    out.write(buffer, 0, n);
+                    remaining -= n;
+                }
+            }
+        }
+    }
+
+    // A Range only applies if the client's copy (named by If-Range) is the current one
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.controllers;
+
+import com.example.demo.services.BookingHoldService;
+import com.example.demo.services.BookingPipeline;
+import com.example.demo.services.BookingService;
+import com.example.demo.services.CarCatalogService;
+import com.example.demo.services.CarSearchIndex;
+import com.example.demo.services.CatalogResponseCache;
+import com.example.demo.services.FleetStatusProcessor;
+import com.example.demo.services.IdempotencyService;
+import com.example.demo.services.ImageGarbageCollector;
+import com.example.demo.services.ImageStore;
+import com.example.demo.services.ImageVariantService;
+import com.example.demo.services.PricingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class MetricsController {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingHoldService bookingHoldService;
+
+    @Autowired
+    private BookingPipeline bookingPipeline;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private FleetStatusProcessor fleetStatusProcessor;
+
+    @Autowired
+    private CarCatalogService carCatalogService;
+
+    @Autowired
+    private CarSearchIndex carSearchIndex;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+
+    // How often concurrent bookings landed on the same lock stripe
+    @GetMapping("/booking-locks")
+    public ResponseEntity<?> getBookingLockStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Booking lock stats fetched successfully",
+            "data", bookingService.getLockStats()
+        ));
+    }
+
+    @GetMapping("/booking-holds")
+    public ResponseEntity<?> getBookingHoldStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Booking hold stats fetched successfully",
+            "data", Map.of("activeHolds", bookingHoldService.getActiveHoldCount())
+        ));
+    }
+
+    // Queue depth and batching efficiency of the partitioned booking writers
+    @GetMapping("/booking-pipeline")
+    public ResponseEntity<?> getBookingPipelineStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Booking pipeline stats fetched successfully",
+            "data", bookingPipeline.getStats()
+        ));
+    }
+
+    // Replayed vs first-time booking requests carrying an Idempotency-Key
+    @GetMapping("/idempotency")
+    public ResponseEntity<?> getIdempotencyStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Idempotency cache stats fetched successfully",
+            "data", idempotencyService.getStats()
+        ));
+    }
+
+    // Compiled pricing rule sets and quote memoization
+    @GetMapping("/pricing")
+    public ResponseEntity<?> getPricingStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Pricing stats fetched successfully",
+            "data", pricingService.getStats()
+        ));
+    }
+
+    // Pending pickup/return events and how many cars they have flipped
+    @GetMapping("/fleet-status")
+    public ResponseEntity<?> getFleetStatusStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Fleet status stats fetched successfully",
+            "data", fleetStatusProcessor.getStats()
+        ));
+    }
+
+    // Hit/miss rates of the public catalog cache
+    @GetMapping("/car-catalog")
+    public ResponseEntity<?> getCarCatalogStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Car catalog cache stats fetched successfully",
+            "data", carCatalogService.getStats()
+        ));
+    }
+
+    @GetMapping("/search-index")
+    public ResponseEntity<?> getSearchIndexStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Search index stats fetched successfully",
+            "data", carSearchIndex.getStats()
+        ));
+    }
+
+    // Pre-serialized car list bodies
+    @GetMapping("/catalog-responses")
+    public ResponseEntity<?> getCatalogResponseStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Catalog response cache stats fetched successfully",
+            "data", catalogResponseCache.getStats()
+        ));
+    }
+
+    // Uploaded images written vs. deduplicated by content hash
+    @GetMapping("/images")
+    public ResponseEntity<?> getImageStoreStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Image store stats fetched successfully",
+            "data", imageStore.getStats()
+        ));
+    }
+
+    // Background thumbnail/medium/large generation
+    @GetMapping("/image-variants")
+    public ResponseEntity<?> getImageVariantStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Image variant stats fetched successfully",
+            "data", imageVariantService.getStats()
+        ));
+    }
+
+    // Orphaned image collection: last run and totals
+    @GetMapping("/image-gc")
+    public ResponseEntity<?> getImageGcStats() {
+        return ResponseEntity.ok(Map.of(
+            "message", "Image GC stats fetched successfully",
+            "data", imageGarbageCollector.getStats()
+        ));
+    }
+}
@@ -2,11 +2,13 @@ package com.example.demo.controllers;
 
 import com.example.demo.models.User;
 import com.example.demo.repositories.UserRepository;
+import com.example.demo.utils.Keyset;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,13 +19,16 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
-    // Get all users
+    // Get all users, paged by id: ?after=<last id of previous page>&limit=&sort=id|-id
     @GetMapping
-    public ResponseEntity<?> getAllUsers() {
-        return ResponseEntity.ok(Map.of(
-            "message", "Users fetched successfully",
-            "data", userRepository.findAll()
-        ));
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String sort) {
+        Keyset page = Keyset.of(after, limit, sort);
+        List<User> users = page.isDescending()
+            ? userRepository.findByIdLessThan(page.cursor(), page.pageable())
+            : userRepository.findByIdGreaterThan(page.cursor(), page.pageable());
+        return ResponseEntity.ok(page.response("Users fetched successfully", users, User::getId));
     }
 
     // Get all admin users
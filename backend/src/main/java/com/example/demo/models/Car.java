@@ -2,8 +2,13 @@ package com.example.demo.models;
 
 import jakarta.persistence.*;
 
+import java.util.Objects;
+
 @Entity
-@Table(name = "cars")
+@Table(name = "cars",
+       indexes = {
+           @Index(name = "idx_cars_type_price", columnList = "type, price_per_day")
+       })
 public class Car {
 
     @Id
@@ -13,11 +18,21 @@ public class Car {
     private String make;      
     private String model;     
     private String type;      
+    @Column(name = "price_per_day")
     private Double pricePerDay;
+    // Whether the car is out on a rental today; kept in step with bookings by FleetStatusProcessor
     private boolean available = true;
+    // Taken off the fleet by an admin: never bookable or listed, whatever the calendar says
+    @Column(name = "out_of_service")
+    private boolean outOfService;
 
     private String imageUrl; // <-- NEW FIELD for storing image path/URL
 
+    // Downscaled copies of imageUrl, filled in in the background after an upload (null until then)
+    private String thumbnailUrl;
+    private String mediumUrl;
+    private String largeUrl;
+
     public Car() {}
 
     public Car(String make, String model, String type, Double pricePerDay, String imageUrl) {
@@ -35,12 +50,25 @@ public class Car {
     public String getType() { return type; }
     public Double getPricePerDay() { return pricePerDay; }
     public boolean isAvailable() { return available; }
+    public boolean isOutOfService() { return outOfService; }
     public String getImageUrl() { return imageUrl; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public String getMediumUrl() { return mediumUrl; }
+    public String getLargeUrl() { return largeUrl; }
 
     public void setMake(String make) { this.make = make; }
     public void setModel(String model) { this.model = model; }
     public void setType(String type) { this.type = type; }
     public void setPricePerDay(Double pricePerDay) { this.pricePerDay = pricePerDay; }
     public void setAvailable(boolean available) { this.available = available; }
-    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public void setOutOfService(boolean outOfService) { this.outOfService = outOfService; }
+    public void setImageUrl(String imageUrl) {
+        // Variants of the previous image no longer apply
+        if (!Objects.equals(this.imageUrl, imageUrl)) {
+            this.thumbnailUrl = null;
+            this.mediumUrl = null;
+            this.largeUrl = null;
+        }
+        this.imageUrl = imageUrl;
+    }
 }
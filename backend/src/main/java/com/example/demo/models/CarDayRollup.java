@@ -0,0 +1,64 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Rental days and revenue of one car on one calendar day. Maintained incrementally by
+ * RollupService; rebuilt from the bookings table when needed.
+ */
+@Entity
+@Table(name = "rollup_car_day")
+@IdClass(CarDayRollup.Key.class)
+public class CarDayRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Id
+    @Column(name = "car_id")
+    private Long carId;
+
+    @Column(name = "rental_days", nullable = false)
+    private long rentalDays;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    protected CarDayRollup() {}
+
+    public LocalDate getRollupDate() { return rollupDate; }
+    public Long getCarId() { return carId; }
+    public long getRentalDays() { return rentalDays; }
+    public double getRevenue() { return revenue; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private LocalDate rollupDate;
+        private Long carId;
+
+        public Key() {}
+
+        public Key(LocalDate rollupDate, Long carId) {
+            this.rollupDate = rollupDate;
+            this.carId = carId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(rollupDate, key.rollupDate) && Objects.equals(carId, key.carId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rollupDate, carId);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Rental days and revenue of all cars of one type on one calendar day. Cars without a type
+ * are counted under "".
+ */
+@Entity
+@Table(name = "rollup_type_day")
+@IdClass(TypeDayRollup.Key.class)
+public class TypeDayRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate rollupDate;
+
+    @Id
+    @Column(name = "car_type")
+    private String carType;
+
+    @Column(name = "rental_days", nullable = false)
+    private long rentalDays;
+
+    @Column(nullable = false)
+    private double revenue;
+
+    protected TypeDayRollup() {}
+
+    public LocalDate getRollupDate() { return rollupDate; }
+    public String getCarType() { return carType; }
+    public long getRentalDays() { return rentalDays; }
+    public double getRevenue() { return revenue; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private LocalDate rollupDate;
+        private String carType;
+
+        public Key() {}
+
+        public Key(LocalDate rollupDate, String carType) {
+            this.rollupDate = rollupDate;
+            this.carType = carType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(rollupDate, key.rollupDate) && Objects.equals(carType, key.carType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rollupDate, carType);
+        }
+    }
+}
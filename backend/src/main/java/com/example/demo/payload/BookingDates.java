@@ -0,0 +1,6 @@
+package com.example.demo.payload;
+
+import java.time.LocalDate;
+
+public record BookingDates(Long carId, LocalDate startDate, LocalDate endDate) {
+}
@@ -0,0 +1,36 @@
+package com.example.demo.payload;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.models.User;
+
+import java.time.LocalDate;
+
+/**
+ * What the booking screens actually render. Selected column by column in
+ * BookingRepository, so list calls never touch the User/Car entity graphs.
+ */
+public record BookingSummary(Long id, LocalDate startDate, LocalDate endDate, CarSummary car, UserSummary user) {
+
+    public record CarSummary(Long id, String make, String model, String imageUrl, Double pricePerDay) {}
+
+    public record UserSummary(Long id, String username) {}
+
+    // Flat form used by the JPQL constructor expressions
+    public BookingSummary(Long id, LocalDate startDate, LocalDate endDate,
+                          Long carId, String make, String model, String imageUrl, Double pricePerDay,
+                          Long userId, String username) {
+        this(id, startDate, endDate,
+                carId == null ? null : new CarSummary(carId, make, model, imageUrl, pricePerDay),
+                userId == null ? null : new UserSummary(userId, username));
+    }
+
+    public static BookingSummary from(Booking booking) {
+        Car car = booking.getCar();
+        User user = booking.getUser();
+        return new BookingSummary(booking.getId(), booking.getStartDate(), booking.getEndDate(),
+                car == null ? null : new CarSummary(car.getId(), car.getMake(), car.getModel(),
+                        car.getImageUrl(), car.getPricePerDay()),
+                user == null ? null : new UserSummary(user.getId(), user.getUsername()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.payload;
+
+/**
+ * One-row aggregate over the bookings table for the admin dashboard.
+ * Revenue is days booked times the car's current daily price.
+ */
+public record BookingTotals(
+        long total,
+        long pickupsToday,
+        long returnsToday,
+        long carsOnRentToday,
+        double revenue,
+        double revenueThisMonth
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.payload;
+
+import java.util.Map;
+
+/**
+ * Car counts for the catalog filters. total honours every filter; each facet honours all
+ * filters except its own, so it shows what picking a different value would return.
+ */
+public record CarFacets(
+        int total,
+        Map<String, Integer> availability,
+        Map<String, Integer> types,
+        Map<String, Integer> prices
+) {
+}
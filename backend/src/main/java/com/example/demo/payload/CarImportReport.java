@@ -0,0 +1,22 @@
+package com.example.demo.payload;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk car import. rows counts data rows read; rejected rows are listed in errors
+ * (up to a cap, see errorsTruncated) and were not imported.
+ */
+public record CarImportReport(
+        long rows,
+        long imported,
+        long rejected,
+        boolean dryRun,
+        List<RowError> errors,
+        boolean errorsTruncated,
+        long elapsedMs
+) {
+
+    // line is the 1-based line of the input file the row starts on
+    public record RowError(long line, String error) {
+    }
+}
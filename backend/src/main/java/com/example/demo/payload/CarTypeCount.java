@@ -0,0 +1,4 @@
+package com.example.demo.payload;
+
+public record CarTypeCount(String type, long cars) {
+}
@@ -0,0 +1,19 @@
+package com.example.demo.payload;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Everything the admin dashboard header shows, built from aggregate queries
+ * rather than by loading the users, cars and bookings tables.
+ */
+public record DashboardSummary(
+        long totalUsers,
+        long totalCars,
+        double fleetUtilization,
+        List<CarTypeCount> carsByType,
+        BookingTotals bookings,
+        List<BookingSummary> recentBookings,
+        Instant generatedAt
+) {
+}
@@ -0,0 +1,23 @@
+package com.example.demo.payload;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Price for renting one car from startDate (inclusive) to endDate (exclusive).
+ * adjustedTotal includes weekend and seasonal rates; discount is the length-of-rental discount
+ * taken off that amount.
+ */
+public record PriceQuote(
+        Long carId,
+        LocalDate startDate,
+        LocalDate endDate,
+        int days,
+        BigDecimal dailyRate,
+        BigDecimal baseTotal,
+        BigDecimal adjustedTotal,
+        BigDecimal discountRate,
+        BigDecimal discount,
+        BigDecimal total
+) {
+}
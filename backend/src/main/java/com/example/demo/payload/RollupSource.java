@@ -0,0 +1,7 @@
+package com.example.demo.payload;
+
+import java.time.LocalDate;
+
+// The booking columns a rollup rebuild needs, read without loading entities
+public record RollupSource(LocalDate startDate, LocalDate endDate, Long carId, String carType, Double pricePerDay) {
+}
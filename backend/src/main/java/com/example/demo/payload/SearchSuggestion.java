@@ -0,0 +1,8 @@
+package com.example.demo.payload;
+
+/**
+ * A completion for the word being typed in the car search box, with the number of cars
+ * (among those matching the rest of the query) that it would find.
+ */
+public record SearchSuggestion(String term, int cars) {
+}
@@ -0,0 +1,18 @@
+package com.example.demo.payload;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One period (a day "2025-06-01" or a month "2025-06") of a rollup report, either for a car
+ * type or for a single car. utilization is rental days over available car-days in the period.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UtilizationRow(
+        String period,
+        String type,
+        Long carId,
+        long rentalDays,
+        double revenue,
+        double utilization
+) {
+}
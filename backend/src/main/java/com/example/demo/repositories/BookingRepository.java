@@ -2,12 +2,105 @@ package com.example.demo.repositories;
 
 import com.example.demo.models.Booking;
 import com.example.demo.models.User;
+import com.example.demo.payload.BookingDates;
+import com.example.demo.payload.BookingTotals;
+import com.example.demo.payload.RollupSource;
+import com.example.demo.payload.BookingSummary;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @EntityGraph(attributePaths = {"car", "user"})
     List<Booking> findByUser(User user);
+
+    @EntityGraph(attributePaths = {"car", "user"})
+    Optional<Booking> findWithCarAndUserById(Long id);
+
+    // Bookings still running or in the future (end date is exclusive)
+    List<Booking> findByEndDateAfter(LocalDate date);
+
+    // Pickup/return dates for the fleet status processor, without loading entities
+    @Query("SELECT new com.example.demo.payload.BookingDates(b.car.id, b.startDate, b.endDate) FROM Booking b WHERE b.endDate >= :since")
+    List<BookingDates> findDatesEndingSince(@Param("since") LocalDate since);
+
+    // Which of these cars have a booking covering the day
+    @Query("SELECT DISTINCT b.car.id FROM Booking b WHERE b.car.id IN :carIds AND b.startDate <= :day AND b.endDate > :day")
+    List<Long> findCarIdsOnRent(@Param("carIds") Collection<Long> carIds, @Param("day") LocalDate day);
+
+    // Keyset pages of BookingSummary rows: one joined select, only the columns the UI renders.
+    // The Pageable only carries the limit and the id sort direction.
+    String SUMMARY = """
+            SELECT new com.example.demo.payload.BookingSummary(
+                b.id, b.startDate, b.endDate,
+                c.id, c.make, c.model, c.imageUrl, c.pricePerDay,
+                u.id, u.username)
+            FROM Booking b LEFT JOIN b.car c LEFT JOIN b.user u
+            """;
+
+    @Query(SUMMARY + "WHERE b.id > :after")
+    List<BookingSummary> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE b.id < :before")
+    List<BookingSummary> findSummariesBefore(@Param("before") Long before, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE b.user.id = :userId AND b.id > :after")
+    List<BookingSummary> findUserSummariesAfter(@Param("userId") Long userId, @Param("after") Long after, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE b.user.id = :userId AND b.id < :before")
+    List<BookingSummary> findUserSummariesBefore(@Param("userId") Long userId, @Param("before") Long before, Pageable pageable);
+
+    // Dashboard totals in one pass over bookings; "today" follows the exclusive end date
+    @Query("""
+            SELECT new com.example.demo.payload.BookingTotals(
+                COUNT(b),
+                COALESCE(SUM(CASE WHEN b.startDate = :today THEN 1 ELSE 0 END), 0),
+                COALESCE(SUM(CASE WHEN b.endDate = :today THEN 1 ELSE 0 END), 0),
+                COUNT(DISTINCT CASE WHEN b.startDate <= :today AND b.endDate > :today THEN c.id END),
+                COALESCE(SUM(c.pricePerDay * ((b.endDate - b.startDate) by day)), 0.0),
+                COALESCE(SUM(CASE WHEN b.startDate >= :monthStart AND b.startDate < :nextMonthStart
+                                  THEN c.pricePerDay * ((b.endDate - b.startDate) by day) ELSE 0.0 END), 0.0))
+            FROM Booking b JOIN b.car c
+            """)
+    BookingTotals getTotals(@Param("today") LocalDate today,
+                            @Param("monthStart") LocalDate monthStart,
+                            @Param("nextMonthStart") LocalDate nextMonthStart);
+
+    // Forward-only cursor for exports. Integer.MIN_VALUE makes MySQL Connector/J stream rows one
+    // at a time instead of buffering the whole result; must be consumed inside a transaction.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.car LEFT JOIN FETCH b.user ORDER BY b.id")
+    Stream<Booking> streamAllForExport();
+
+    // Same streaming hints as the export, but only the columns the rollup rebuild needs
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.example.demo.payload.RollupSource(b.startDate, b.endDate, c.id, c.type, c.pricePerDay)
+            FROM Booking b JOIN b.car c
+            """)
+    Stream<RollupSource> streamRollupSources();
 }
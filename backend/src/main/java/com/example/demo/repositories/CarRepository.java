@@ -1,12 +1,60 @@
 package com.example.demo.repositories;
 
 import com.example.demo.models.Car;
+import com.example.demo.payload.CarTypeCount;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CarRepository extends JpaRepository<Car, Long> {
     List<Car> findByAvailableTrue();
+
+    // Keyset pages: the Pageable only carries the limit and the id sort direction
+    List<Car> findByIdGreaterThan(Long after, Pageable pageable);
+    List<Car> findByIdLessThan(Long before, Pageable pageable);
+    List<Car> findByAvailableTrueAndOutOfServiceFalseAndIdGreaterThan(Long after, Pageable pageable);
+    List<Car> findByAvailableTrueAndOutOfServiceFalseAndIdLessThan(Long before, Pageable pageable);
+
+    // One statement for a whole batch of pickups or returns; rows already in that state are skipped
+    @Modifying
+    @Query("UPDATE Car c SET c.available = :available WHERE c.id IN :ids AND c.available <> :available")
+    int updateAvailability(@Param("ids") Collection<Long> ids, @Param("available") boolean available);
+
+    // Cars whose image variants still have to be generated
+    @Query("SELECT c.id FROM Car c WHERE c.imageUrl IS NOT NULL AND c.thumbnailUrl IS NULL ORDER BY c.id")
+    List<Long> findIdsMissingImageVariants();
+
+    @Query("SELECT new com.example.demo.payload.CarTypeCount(c.type, COUNT(c)) FROM Car c GROUP BY c.type ORDER BY c.type")
+    List<CarTypeCount> countByType();
+
+    // Every filter is optional (null = ignored). With a date range, cars that have a
+    // booking overlapping [start, end) are excluded via idx_bookings_car_dates. Cars out of
+    // service are never returned.
+    @Query("""
+            SELECT c FROM Car c
+            WHERE c.outOfService = false
+              AND (:type IS NULL OR c.type = :type)
+              AND (:minPrice IS NULL OR c.pricePerDay >= :minPrice)
+              AND (:maxPrice IS NULL OR c.pricePerDay <= :maxPrice)
+              AND (:text IS NULL OR LOWER(c.make) LIKE :text OR LOWER(c.model) LIKE :text)
+              AND (:start IS NULL OR NOT EXISTS (
+                    SELECT b.id FROM Booking b
+                    WHERE b.car = c AND b.startDate < :end AND b.endDate > :start))
+            """)
+    Page<Car> search(@Param("type") String type,
+                     @Param("minPrice") Double minPrice,
+                     @Param("maxPrice") Double maxPrice,
+                     @Param("text") String text,
+                     @Param("start") LocalDate start,
+                     @Param("end") LocalDate end,
+                     Pageable pageable);
 }
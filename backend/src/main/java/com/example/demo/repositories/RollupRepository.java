@@ -0,0 +1,23 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.CarDayRollup;
+import com.example.demo.models.TypeDayRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Reads only; RollupService writes these tables with batched upserts. Rows netted to zero
+// by cancellations are left in place and skipped here.
+@Repository
+public interface RollupRepository extends JpaRepository<TypeDayRollup, TypeDayRollup.Key> {
+
+    @Query("SELECT r FROM TypeDayRollup r WHERE r.rollupDate >= :from AND r.rollupDate < :to AND r.rentalDays <> 0 ORDER BY r.rollupDate, r.carType")
+    List<TypeDayRollup> findTypeDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r FROM CarDayRollup r WHERE r.rollupDate >= :from AND r.rollupDate < :to AND r.rentalDays <> 0 ORDER BY r.rollupDate, r.carId")
+    List<CarDayRollup> findCarDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
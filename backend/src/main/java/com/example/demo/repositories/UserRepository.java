@@ -1,6 +1,7 @@
 package com.example.demo.repositories;
 
 import com.example.demo.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -16,6 +17,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Find user by email
     Optional<User> findByEmail(String email);
+
+    // Keyset pages: the Pageable only carries the limit and the id sort direction
+    List<User> findByIdGreaterThan(Long after, Pageable pageable);
+    List<User> findByIdLessThan(Long before, Pageable pageable);
     
     // Custom query for admin users
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = 'ROLE_ADMIN'")
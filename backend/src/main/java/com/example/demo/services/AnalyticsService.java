@@ -0,0 +1,108 @@
+package com.example.demo.services;
+
+import com.example.demo.models.CarDayRollup;
+import com.example.demo.models.TypeDayRollup;
+import com.example.demo.payload.CarTypeCount;
+import com.example.demo.payload.UtilizationRow;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.repositories.RollupRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Utilization and revenue reports read from the rollup tables, so a report over a date range
+ * touches days x types (or days x cars) rows no matter how many bookings there are.
+ *
+ * Fleet size per type is today's fleet; cars added or removed during the range are not
+ * reflected in older periods.
+ */
+@Service
+public class AnalyticsService {
+
+    public static final int MAX_REPORT_DAYS = 3 * 366;
+
+    private final RollupRepository rollupRepository;
+    private final CarRepository carRepository;
+
+    public AnalyticsService(RollupRepository rollupRepository, CarRepository carRepository) {
+        this.rollupRepository = rollupRepository;
+        this.carRepository = carRepository;
+    }
+
+    // Rows for [from, to) per car type, by day or by month
+    public List<UtilizationRow> byType(LocalDate from, LocalDate to, boolean monthly) {
+        Map<String, Long> fleet = carRepository.countByType().stream()
+                .collect(Collectors.toMap(c -> c.type() == null ? "" : c.type(), CarTypeCount::cars, Long::sum));
+
+        Map<String, Map<String, double[]>> totals = new TreeMap<>();
+        for (TypeDayRollup row : rollupRepository.findTypeDays(from, to)) {
+            double[] total = totals.computeIfAbsent(period(row.getRollupDate(), monthly), p -> new TreeMap<>())
+                    .computeIfAbsent(row.getCarType(), type -> new double[2]);
+            total[0] += row.getRentalDays();
+            total[1] += row.getRevenue();
+        }
+
+        List<UtilizationRow> result = new ArrayList<>();
+        totals.forEach((period, types) -> {
+            long periodDays = daysIn(period, from, to, monthly);
+            types.forEach((type, total) -> {
+                long carDays = fleet.getOrDefault(type, 0L) * periodDays;
+                result.add(new UtilizationRow(period, type, null, (long) total[0], round(total[1]),
+                        carDays == 0 ? 0.0 : total[0] / carDays));
+            });
+        });
+        return result;
+    }
+
+    // Rows for [from, to) per car, by day or by month
+    public List<UtilizationRow> byCar(LocalDate from, LocalDate to, boolean monthly) {
+        Map<String, Map<Long, double[]>> totals = new TreeMap<>();
+        for (CarDayRollup row : rollupRepository.findCarDays(from, to)) {
+            double[] total = totals.computeIfAbsent(period(row.getRollupDate(), monthly), p -> new TreeMap<>())
+                    .computeIfAbsent(row.getCarId(), id -> new double[2]);
+            total[0] += row.getRentalDays();
+            total[1] += row.getRevenue();
+        }
+
+        List<UtilizationRow> result = new ArrayList<>();
+        totals.forEach((period, cars) -> {
+            long periodDays = daysIn(period, from, to, monthly);
+            cars.forEach((carId, total) -> result.add(new UtilizationRow(period, null, carId, (long) total[0],
+                    round(total[1]), total[0] / periodDays)));
+        });
+        return result;
+    }
+
+    private static String period(LocalDate day, boolean monthly) {
+        return monthly ? YearMonth.from(day).toString() : day.toString();
+    }
+
+    // Days of the period that fall inside [from, to)
+    private static long daysIn(String period, LocalDate from, LocalDate to, boolean monthly) {
+        if (!monthly) return 1;
+        YearMonth month = YearMonth.parse(period);
+        LocalDate start = max(month.atDay(1), from);
+        LocalDate end = min(month.plusMonths(1).atDay(1), to);
+        return ChronoUnit.DAYS.between(start, end);
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.repositories.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of booked date ranges per car. Ranges are half-open
+ * {@code [startDate, endDate)}: a car returned on the 10th can be picked up again on the 10th.
+ * Each range has an owner: a booking id, or a hold id while checkout is in progress.
+ *
+ * Ranges that have ended can't conflict with anything, so they are dropped: from a car's
+ * schedule whenever it takes a new reservation, and from every schedule once a day.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private final BookingRepository bookingRepository;
+
+    private final Map<Long, CarSchedule> schedules = new ConcurrentHashMap<>();
+
+    public AvailabilityService(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    // Bookings that already ended can never conflict with a new one, so only load the rest
+    @PostConstruct
+    public void load() {
+        List<Booking> bookings = bookingRepository.findByEndDateAfter(LocalDate.now());
+        for (Booking booking : bookings) {
+            if (booking.getCar() == null) continue;
+            schedule(booking.getCar().getId())
+                    .add(new Interval(booking.getId(), booking.getStartDate(), booking.getEndDate()));
+        }
+        logger.info("Loaded {} active bookings into availability index", bookings.size());
+    }
+
+    public boolean isAvailable(Long carId, LocalDate start, LocalDate end) {
+        CarSchedule schedule = schedules.get(carId);
+        return schedule == null || schedule.isFree(start, end);
+    }
+
+    // Returns false (and records nothing) if the range overlaps an existing booking or hold
+    public boolean reserve(Long carId, LocalDate start, LocalDate end, Object owner) {
+        CarSchedule schedule = schedule(carId);
+        schedule.prune(LocalDate.now());
+        return schedule.tryAdd(new Interval(owner, start, end));
+    }
+
+    public void release(Long carId, LocalDate start, Object owner) {
+        CarSchedule schedule = schedules.get(carId);
+        if (schedule != null) {
+            schedule.remove(owner, start);
+        }
+    }
+
+    // For cars that haven't been booked in a while. Schedules themselves stay (one per car),
+    // since a concurrent reserve may already hold a reference to one
+    @Scheduled(cron = "${app.availability.pruneCron:0 5 0 * * *}")
+    public void pruneEnded() {
+        LocalDate today = LocalDate.now();
+        int removed = 0;
+        for (CarSchedule schedule : schedules.values()) {
+            removed += schedule.prune(today);
+        }
+        if (removed > 0) {
+            logger.info("Dropped {} ended bookings from the availability index", removed);
+        }
+    }
+
+    private CarSchedule schedule(Long carId) {
+        return schedules.computeIfAbsent(carId, id -> new CarSchedule());
+    }
+
+    record Interval(Object owner, LocalDate start, LocalDate end) {}
+
+    // A merged block of bookings. Only rows loaded from the database can overlap,
+    // new reservations are rejected before they get here.
+    record Range(LocalDate end, List<Interval> members) {}
+
+    static final class CarSchedule {
+
+        // start date -> range; ranges never overlap, so neighbours in the map are all we need to check
+        private final TreeMap<LocalDate, Range> ranges = new TreeMap<>();
+
+        synchronized boolean isFree(LocalDate start, LocalDate end) {
+            Map.Entry<LocalDate, Range> before = ranges.floorEntry(start);
+            if (before != null && before.getValue().end().isAfter(start)) {
+                return false;
+            }
+            LocalDate next = ranges.higherKey(start);
+            return next == null || !next.isBefore(end);
+        }
+
+        synchronized boolean tryAdd(Interval interval) {
+            if (!isFree(interval.start(), interval.end())) {
+                return false;
+            }
+            add(interval);
+            return true;
+        }
+
+        synchronized void add(Interval interval) {
+            LocalDate start = interval.start();
+            LocalDate end = interval.end();
+            List<Interval> members = new ArrayList<>();
+            members.add(interval);
+
+            Map.Entry<LocalDate, Range> before = ranges.floorEntry(start);
+            if (before != null && before.getValue().end().isAfter(start)) {
+                start = before.getKey();
+            }
+            Map.Entry<LocalDate, Range> entry;
+            while ((entry = ranges.ceilingEntry(start)) != null && entry.getKey().isBefore(end)) {
+                Range absorbed = ranges.remove(entry.getKey());
+                members.addAll(absorbed.members());
+                if (absorbed.end().isAfter(end)) end = absorbed.end();
+            }
+            ranges.put(start, new Range(end, members));
+        }
+
+        // Ranges don't overlap, so their ends ascend like their starts: ended ones are at the head.
+        // Returns the number of bookings and holds dropped.
+        synchronized int prune(LocalDate today) {
+            int removed = 0;
+            Map.Entry<LocalDate, Range> first;
+            while ((first = ranges.firstEntry()) != null && !first.getValue().end().isAfter(today)) {
+                ranges.pollFirstEntry();
+                removed += first.getValue().members().size();
+            }
+            return removed;
+        }
+
+        synchronized void remove(Object owner, LocalDate start) {
+            Map.Entry<LocalDate, Range> entry = ranges.floorEntry(start);
+            if (entry == null) return;
+
+            List<Interval> remaining = new ArrayList<>(entry.getValue().members());
+            if (!remaining.removeIf(i -> i.owner().equals(owner))) return;
+
+            ranges.remove(entry.getKey());
+            for (Interval interval : remaining) {
+                add(interval);
+            }
+        }
+    }
+}
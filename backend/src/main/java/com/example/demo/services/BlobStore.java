@@ -0,0 +1,44 @@
+package com.example.demo.services;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Where ImageStore keeps image bytes, by key (ab/cd/<sha256>.<ext>). Keys are content hashes,
+ * so a blob is never overwritten with different content and can be cached anywhere forever.
+ *
+ * Chosen by app.images.store; see BlobStoreConfig.
+ */
+public interface BlobStore {
+
+    boolean exists(String key) throws IOException;
+
+    // Takes over the file (it may be moved rather than copied); false if the key already existed
+    boolean put(String key, Path file, String contentType) throws IOException;
+
+    // The blob's content, or null if the store can tell cheaply that it doesn't exist
+    Resource get(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    // Up to limit blobs with keys after `after` (null: from the start), in key order
+    List<Blob> list(String after, int limit) throws IOException;
+
+    // A URL clients can fetch the blob from without going through the app, or null if the
+    // app has to serve it
+    URI directUrl(String key);
+
+    // How long a URL from directUrl is guaranteed to keep working
+    Duration getDirectUrlValidity();
+
+    String getType();
+
+    record Blob(String key, long size, Instant lastModified) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.models.User;
+import com.example.demo.repositories.BookingRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full booking history as NDJSON or CSV straight from a forward-only result set.
+ * Rows are detached once written, so memory stays flat no matter how many bookings there are.
+ */
+@Service
+public class BookingExportService {
+
+    private static final String[] COLUMNS = {
+            "id", "startDate", "endDate", "days", "userId", "username",
+            "carId", "make", "model", "type", "pricePerDay", "total"
+    };
+
+    // Clear the persistence context periodically so the fetched users and cars don't pile up either
+    private static final int CLEAR_EVERY = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public BookingExportService(BookingRepository bookingRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.bookingRepository = bookingRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeNdjson(OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamAllForExport();
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+            int rows = 0;
+            for (Iterator<Booking> it = bookings.iterator(); it.hasNext(); ) {
+                Booking booking = it.next();
+                Car car = booking.getCar();
+                User user = booking.getUser();
+                long days = ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate());
+
+                json.writeStartObject();
+                json.writeNumberField("id", booking.getId());
+                json.writeStringField("startDate", String.valueOf(booking.getStartDate()));
+                json.writeStringField("endDate", String.valueOf(booking.getEndDate()));
+                json.writeNumberField("days", days);
+                json.writeObjectField("userId", user == null ? null : user.getId());
+                json.writeStringField("username", user == null ? null : user.getUsername());
+                json.writeObjectField("carId", car == null ? null : car.getId());
+                json.writeStringField("make", car == null ? null : car.getMake());
+                json.writeStringField("model", car == null ? null : car.getModel());
+                json.writeStringField("type", car == null ? null : car.getType());
+                json.writeObjectField("pricePerDay", car == null ? null : car.getPricePerDay());
+                json.writeObjectField("total", total(car, days));
+                json.writeEndObject();
+                json.writeRaw('\n');
+
+                release(booking, ++rows);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamAllForExport();
+             Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            csv.write(String.join(",", COLUMNS));
+            csv.write('\n');
+
+            int rows = 0;
+            for (Iterator<Booking> it = bookings.iterator(); it.hasNext(); ) {
+                Booking booking = it.next();
+                Car car = booking.getCar();
+                User user = booking.getUser();
+                long days = ChronoUnit.DAYS.between(booking.getStartDate(), booking.getEndDate());
+                Double total = total(car, days);
+
+                csv.write(String.join(",",
+                        String.valueOf(booking.getId()),
+                        String.valueOf(booking.getStartDate()),
+                        String.valueOf(booking.getEndDate()),
+                        String.valueOf(days),
+                        user == null ? "" : String.valueOf(user.getId()),
+                        user == null ? "" : escape(user.getUsername()),
+                        car == null ? "" : String.valueOf(car.getId()),
+                        car == null ? "" : escape(car.getMake()),
+                        car == null ? "" : escape(car.getModel()),
+                        car == null ? "" : escape(car.getType()),
+                        car == null || car.getPricePerDay() == null ? "" : String.valueOf(car.getPricePerDay()),
+                        total == null ? "" : String.valueOf(total)));
+                csv.write('\n');
+
+                release(booking, ++rows);
+            }
+        }
+    }
+
+    private void release(Booking booking, int rows) {
+        entityManager.detach(booking);
+        if (rows % CLEAR_EVERY == 0) {
+            entityManager.clear();
+        }
+    }
+
+    private static Double total(Car car, long days) {
+        return car == null || car.getPricePerDay() == null ? null : car.getPricePerDay() * days;
+    }
+
+    // RFC 4180: quote anything with a separator, a quote or a line break (CR on its own too)
+    private static String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
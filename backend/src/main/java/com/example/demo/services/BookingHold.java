@@ -0,0 +1,45 @@
+package com.example.demo.services;
+
+import com.example.demo.utils.HashedTimingWheel;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A short-lived reservation of a car's date range while the user is in checkout.
+ * Lives only in memory; it either becomes a booking or expires.
+ */
+public class BookingHold {
+
+    private final String id;
+    private final Long userId;
+    private final Long carId;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final Instant expiresAt;
+
+    private volatile HashedTimingWheel.Timeout<BookingHold> timeout;
+
+    BookingHold(String id, Long userId, Long carId, LocalDate startDate, LocalDate endDate, Instant expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.carId = carId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public Long getUserId() { return userId; }
+    public Long getCarId() { return carId; }
+    public LocalDate getStartDate() { return startDate; }
+    public LocalDate getEndDate() { return endDate; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    void setTimeout(HashedTimingWheel.Timeout<BookingHold> timeout) { this.timeout = timeout; }
+
+    void cancelTimeout() {
+        HashedTimingWheel.Timeout<BookingHold> t = timeout;
+        if (t != null) t.cancel();
+    }
+}
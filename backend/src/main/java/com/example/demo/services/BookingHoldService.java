@@ -0,0 +1,98 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.models.User;
+import com.example.demo.utils.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout holds. A hold takes the car's date range in the availability index like a booking
+ * does, and a timing wheel gives it back when the TTL runs out unless it was confirmed first.
+ */
+@Service
+public class BookingHoldService {
+
+    // One-second ticks; 512 slots cover holds of up to ~8.5 minutes in a single round
+    private static final int WHEEL_SIZE = 512;
+
+    private final AvailabilityService availabilityService;
+    private final BookingService bookingService;
+    private final long holdTtlSeconds;
+
+    private final Map<String, BookingHold> holds = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<BookingHold> wheel;
+
+    public BookingHoldService(AvailabilityService availabilityService,
+                              BookingService bookingService,
+                              @Value("${app.booking.holdTtlSeconds:120}") long holdTtlSeconds) {
+        this.availabilityService = availabilityService;
+        this.bookingService = bookingService;
+        this.holdTtlSeconds = holdTtlSeconds;
+        this.wheel = new HashedTimingWheel<>("booking-hold-expiry", 1, TimeUnit.SECONDS, WHEEL_SIZE, this::expire);
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.stop();
+    }
+
+    // Empty if the range overlaps a booking or someone else's hold
+    public Optional<BookingHold> place(Long userId, Long carId, LocalDate start, LocalDate end) {
+        return bookingService.withCarLock(carId, () -> {
+            BookingHold hold = new BookingHold(UUID.randomUUID().toString(), userId, carId, start, end,
+                    Instant.now().plusSeconds(holdTtlSeconds));
+            if (!availabilityService.reserve(carId, start, end, hold.getId())) {
+                return Optional.empty();
+            }
+            holds.put(hold.getId(), hold);
+            hold.setTimeout(wheel.schedule(hold, holdTtlSeconds, TimeUnit.SECONDS));
+            return Optional.of(hold);
+        });
+    }
+
+    public Optional<BookingHold> get(String holdId) {
+        return Optional.ofNullable(holds.get(holdId));
+    }
+
+    // Swaps the hold for a real booking under the car's lock, so nothing can take the range in between
+    public Optional<Booking> confirm(BookingHold hold, User user, Car car) {
+        return bookingService.withCarLock(hold.getCarId(), () -> {
+            // Lost the race against expiry
+            if (!holds.remove(hold.getId(), hold)) {
+                return Optional.empty();
+            }
+            hold.cancelTimeout();
+            availabilityService.release(hold.getCarId(), hold.getStartDate(), hold.getId());
+            return bookingService.bookLocked(user, car, hold.getStartDate(), hold.getEndDate());
+        });
+    }
+
+    public void release(BookingHold hold) {
+        hold.cancelTimeout();
+        expire(hold);
+    }
+
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    private void expire(BookingHold hold) {
+        bookingService.withCarLock(hold.getCarId(), () -> {
+            if (holds.remove(hold.getId(), hold)) {
+                availabilityService.release(hold.getCarId(), hold.getStartDate(), hold.getId());
+            }
+            return null;
+        });
+    }
+}
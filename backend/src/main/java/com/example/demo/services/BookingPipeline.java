@@ -0,0 +1,304 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.models.User;
+import com.example.demo.repositories.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional burst mode for booking creation (app.booking.pipeline.enabled). Requests are hashed
+ * by car id onto a fixed set of partitions; each partition has a bounded queue and exactly one
+ * writer thread, which validates requests in arrival order and writes a whole batch of bookings
+ * in one transaction. Request threads only wait on a future.
+ *
+ * Bookings use IDENTITY ids, so Hibernate still sends one INSERT per row; the batch saves the
+ * per-request transaction, connection checkout and commit rather than the statements themselves.
+ *
+ * A request whose caller stopped waiting is withdrawn: the writer skips it if it hasn't been
+ * reserved yet, and deletes the booking again if it was already being written. A caller that
+ * was told to retry never has a booking created behind its back.
+ */
+@Service
+public class BookingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPipeline.class);
+
+    private final BookingRepository bookingRepository;
+    private final CarCatalogService carCatalogService;
+    private final AvailabilityService availabilityService;
+    private final BookingService bookingService;
+    private final RollupService rollupService;
+    private final FleetStatusProcessor fleetStatusProcessor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final Partition[] partitions;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedRequests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder withdrawn = new LongAdder();
+
+    public BookingPipeline(BookingRepository bookingRepository,
+                           CarCatalogService carCatalogService,
+                           AvailabilityService availabilityService,
+                           BookingService bookingService,
+                           RollupService rollupService,
+                           FleetStatusProcessor fleetStatusProcessor,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${app.booking.pipeline.enabled:false}") boolean enabled,
+                           @Value("${app.booking.pipeline.partitions:8}") int partitions,
+                           @Value("${app.booking.pipeline.queueCapacity:4096}") int queueCapacity,
+                           @Value("${app.booking.pipeline.batchSize:256}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.carCatalogService = carCatalogService;
+        this.availabilityService = availabilityService;
+        this.bookingService = bookingService;
+        this.rollupService = rollupService;
+        this.fleetStatusProcessor = fleetStatusProcessor;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition(i, queueCapacity);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        for (Partition partition : partitions) {
+            partition.writer.start();
+        }
+        logger.info("Booking pipeline started with {} partitions", partitions.length);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Partition partition : partitions) {
+            partition.writer.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Empty if the dates are taken. ExecutionException wraps a RejectedExecutionException if the
+    // partition is saturated; TimeoutException means the request was withdrawn and nothing was booked.
+    public Optional<Booking> book(User user, Car car, LocalDate start, LocalDate end, long timeoutMs)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        CompletableFuture<Optional<Booking>> result = submit(user, car, start, end);
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Completing the future is the withdrawal; the writer checks it before and after writing
+            if (result.completeExceptionally(e)) {
+                withdrawn.increment();
+                throw e;
+            }
+            // Finished just as the wait ran out, so that outcome stands
+            return result.get();
+        }
+    }
+
+    private CompletableFuture<Optional<Booking>> submit(User user, Car car, LocalDate start, LocalDate end) {
+        BookingRequest request = new BookingRequest(user, car, start, end);
+        Partition partition = partitions[Math.floorMod(Long.hashCode(car.getId()), partitions.length)];
+        if (!partition.queue.offer(request)) {
+            rejected.increment();
+            request.result.completeExceptionally(new RejectedExecutionException("Booking queue is full, please retry"));
+        }
+        return request.result;
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.queue.size();
+        }
+        return Map.of(
+                "enabled", enabled,
+                "partitions", partitions.length,
+                "queued", queued,
+                "batches", batchCount,
+                "averageBatchSize", batchCount == 0 ? 0.0 : (double) batchedRequests.sum() / batchCount,
+                "rejected", rejected.sum(),
+                "withdrawn", withdrawn.sum()
+        );
+    }
+
+    private void process(List<BookingRequest> batch) {
+        batches.increment();
+        batchedRequests.add(batch.size());
+
+        // Claim each range in the index first (the request object is the placeholder owner),
+        // so conflicts inside the batch and with holds are settled before touching the database
+        List<BookingRequest> accepted = new ArrayList<>(batch.size());
+        for (BookingRequest request : batch) {
+            // The caller already gave up waiting
+            if (request.result.isDone()) continue;
+            Long carId = request.car.getId();
+            boolean reserved = bookingService.withCarLock(carId,
+                    () -> availabilityService.reserve(carId, request.start, request.end, request));
+            if (reserved) {
+                accepted.add(request);
+            } else {
+                request.result.complete(Optional.empty());
+            }
+        }
+        if (accepted.isEmpty()) return;
+
+        List<Booking> saved;
+        try {
+            saved = transactionTemplate.execute(status -> persist(accepted));
+        } catch (RuntimeException e) {
+            logger.error("Booking batch of {} failed: {}", accepted.size(), e.getMessage());
+            for (BookingRequest request : accepted) {
+                Long carId = request.car.getId();
+                bookingService.withCarLock(carId, () -> {
+                    availabilityService.release(carId, request.start, request);
+                    return null;
+                });
+                request.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        List<Booking> kept = new ArrayList<>(saved.size());
+        List<Booking> abandoned = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            BookingRequest request = accepted.get(i);
+            Booking booking = saved.get(i);
+            Long carId = request.car.getId();
+            bookingService.withCarLock(carId, () -> {
+                availabilityService.release(carId, request.start, request);
+                availabilityService.reserve(carId, request.start, request.end, booking.getId());
+                return null;
+            });
+            // Fails if the caller timed out while the batch was being written
+            if (request.result.complete(Optional.of(booking))) {
+                kept.add(booking);
+            } else {
+                abandoned.add(booking);
+            }
+        }
+        if (!abandoned.isEmpty()) {
+            kept.addAll(removeAbandoned(abandoned));
+        }
+        rollupService.recordBooked(kept);
+        // Includes removed bookings: their events re-derive the car's flag from what is left
+        fleetStatusProcessor.track(saved);
+    }
+
+    // Returns the bookings that could not be removed, which stay booked
+    private List<Booking> removeAbandoned(List<Booking> abandoned) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.deleteAll(abandoned));
+        } catch (RuntimeException e) {
+            logger.error("Removing {} withdrawn bookings failed: {}", abandoned.size(), e.getMessage());
+            return abandoned;
+        }
+        for (Booking booking : abandoned) {
+            Long carId = booking.getCar().getId();
+            bookingService.withCarLock(carId, () -> {
+                availabilityService.release(carId, booking.getStartDate(), booking.getId());
+                return null;
+            });
+        }
+        return List.of();
+    }
+
+    private List<Booking> persist(List<BookingRequest> accepted) {
+        List<Booking> bookings = new ArrayList<>(accepted.size());
+        Map<Long, Car> startingToday = new LinkedHashMap<>();
+        LocalDate today = LocalDate.now();
+        for (BookingRequest request : accepted) {
+            bookings.add(new Booking(request.start, request.end, request.user, request.car));
+            if (request.start.isEqual(today) && request.car.isAvailable()) {
+                startingToday.putIfAbsent(request.car.getId(), request.car);
+            }
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(bookings);
+        // The flag only says whether the car is out on a rental today
+        for (Car car : startingToday.values()) {
+            car.setAvailable(false);
+        }
+        carCatalogService.saveAll(startingToday.values());
+        return saved;
+    }
+
+    // Identity equality on purpose: it is the placeholder owner of the range until the row exists
+    private static final class BookingRequest {
+        private final User user;
+        private final Car car;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final CompletableFuture<Optional<Booking>> result = new CompletableFuture<>();
+
+        private BookingRequest(User user, Car car, LocalDate start, LocalDate end) {
+            this.user = user;
+            this.car = car;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final class Partition implements Runnable {
+        private final BlockingQueue<BookingRequest> queue;
+        private final Thread writer;
+
+        private Partition(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.writer = new Thread(this, "booking-writer-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<BookingRequest> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, batchSize - 1);
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    logger.error("Booking writer failed: {}", e.getMessage(), e);
+                    for (BookingRequest request : batch) {
+                        request.result.completeExceptionally(e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
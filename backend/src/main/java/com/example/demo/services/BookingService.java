@@ -0,0 +1,135 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.models.User;
+import com.example.demo.repositories.BookingRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes writes per car with a fixed set of striped locks. Bookings for cars on
+ * different stripes run fully in parallel; two requests for the same car queue up
+ * on one lock and the second one sees the first one's reservation.
+ *
+ * The locks are per JVM, so this relies on a single backend replica.
+ */
+@Service
+public class BookingService {
+
+    // Power of two so the stripe can be picked with a mask
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final CarCatalogService carCatalogService;
+    private final AvailabilityService availabilityService;
+    private final RollupService rollupService;
+    private final FleetStatusProcessor fleetStatusProcessor;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public BookingService(BookingRepository bookingRepository,
+                          CarCatalogService carCatalogService,
+                          AvailabilityService availabilityService,
+                          RollupService rollupService,
+                          FleetStatusProcessor fleetStatusProcessor) {
+        this.bookingRepository = bookingRepository;
+        this.carCatalogService = carCatalogService;
+        this.availabilityService = availabilityService;
+        this.rollupService = rollupService;
+        this.fleetStatusProcessor = fleetStatusProcessor;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Empty if the dates overlap another booking or hold for the car
+    public Optional<Booking> book(User user, Car car, LocalDate start, LocalDate end) {
+        return withCarLock(car.getId(), () -> bookLocked(user, car, start, end));
+    }
+
+    // Anything that changes a car's reservations (bookings, holds) runs under its stripe
+    public <T> T withCarLock(Long carId, Supplier<T> action) {
+        ReentrantLock lock = lockFor(carId);
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller must hold the car's lock
+    Optional<Booking> bookLocked(User user, Car car, LocalDate start, LocalDate end) {
+        if (!availabilityService.isAvailable(car.getId(), start, end)) {
+            return Optional.empty();
+        }
+
+        Booking saved = bookingRepository.save(new Booking(start, end, user, car));
+        availabilityService.reserve(car.getId(), start, end, saved.getId());
+
+        // The flag only says whether the car is out on a rental today
+        if (start.isEqual(LocalDate.now()) && car.isAvailable()) {
+            car.setAvailable(false);
+            carCatalogService.save(car);
+        }
+        rollupService.recordBooked(saved);
+        fleetStatusProcessor.track(saved);
+        return Optional.of(saved);
+    }
+
+    public void cancel(Booking booking) {
+        Car car = booking.getCar();
+        withCarLock(car.getId(), () -> {
+            LocalDate today = LocalDate.now();
+            if (!booking.getStartDate().isAfter(today) && booking.getEndDate().isAfter(today)) {
+                car.setAvailable(true);
+                carCatalogService.save(car);
+            }
+
+            bookingRepository.delete(booking);
+            availabilityService.release(car.getId(), booking.getStartDate(), booking.getId());
+            rollupService.recordCancelled(booking);
+            return null;
+        });
+    }
+
+    public Map<String, Object> getLockStats() {
+        long total = acquisitions.sum();
+        long collisions = contended.sum();
+        return Map.of(
+                "stripes", STRIPES,
+                "acquisitions", total,
+                "contended", collisions,
+                "contentionRate", total == 0 ? 0.0 : (double) collisions / total,
+                "totalWaitMs", waitNanos.sum() / 1_000_000
+        );
+    }
+
+    private ReentrantLock lockFor(Long carId) {
+        int h = Long.hashCode(carId);
+        return locks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    // Uncontended acquisitions take the fast path; anything else is counted as a collision
+    private void acquire(ReentrantLock lock) {
+        acquisitions.increment();
+        if (lock.tryLock()) {
+            return;
+        }
+        contended.increment();
+        long started = System.nanoTime();
+        lock.lock();
+        waitNanos.add(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.utils.BoundedCache;
+import com.example.demo.utils.Keyset;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache for the public car catalog (single cars and keyset pages), and the one
+ * place that writes cars. Every write invalidates exactly the entries it can affect once the
+ * change is committed: the car itself and the cached pages whose id range contains it.
+ *
+ * Loads remember the catalog version they started at and are only cached if no write
+ * happened in the meantime, so a slow read can't put a pre-write row back into the cache.
+ * The same version drives the ETags on the public catalog endpoints. Other in-memory views of
+ * the catalog follow writes through CatalogChangedEvent.
+ */
+@Service
+public class CarCatalogService {
+
+    private static final String INSERT_CAR = """
+            INSERT INTO cars (make, model, type, price_per_day, available, out_of_service, image_url) VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_IMAGE_VARIANTS = """
+            UPDATE cars SET thumbnail_url = ?, medium_url = ?, large_url = ? WHERE id = ? AND image_url = ?
+            """;
+
+    // Bound to a transaction once it has scheduled a full invalidation
+    private static final Object BULK_CHANGE = new Object();
+
+    private final CarRepository carRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PricingService pricingService;
+    private final ApplicationEventPublisher events;
+
+    private final BoundedCache<Long, Optional<Car>> cars;
+    private final BoundedCache<PageKey, List<Car>> pages;
+    private final AtomicLong version = new AtomicLong();
+    // Versions restart at 0 on every boot; this keeps an old ETag from matching new data
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    public CarCatalogService(CarRepository carRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PricingService pricingService,
+                             ApplicationEventPublisher events,
+                             @Value("${app.catalog.carCacheSize:10000}") int carCacheSize,
+                             @Value("${app.catalog.pageCacheSize:1000}") int pageCacheSize,
+                             @Value("${app.catalog.ttlSeconds:300}") long ttlSeconds) {
+        this.carRepository = carRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pricingService = pricingService;
+        this.events = events;
+        this.cars = new BoundedCache<>(carCacheSize, ttlSeconds, TimeUnit.SECONDS);
+        this.pages = new BoundedCache<>(pageCacheSize, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    // Cached instances are shared between requests: read them, never modify them
+    public Optional<Car> findById(Long id) {
+        Optional<Car> cached = cars.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = version.get();
+        Optional<Car> loaded = carRepository.findById(id);
+        cars.putIf(id, loaded, () -> version.get() == seen);
+        return loaded;
+    }
+
+    // Cars in the order of ids, skipping ids that don't exist; misses are loaded in one query
+    public List<Car> findAllById(List<Long> ids) {
+        Map<Long, Car> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<Car> cached = cars.get(id);
+            if (cached == null) {
+                missing.add(id);
+            } else {
+                cached.ifPresent(car -> found.put(id, car));
+            }
+        }
+        if (!missing.isEmpty()) {
+            long seen = version.get();
+            Map<Long, Car> loaded = carRepository.findAllById(missing).stream()
+                    .collect(Collectors.toMap(Car::getId, Function.identity()));
+            for (Long id : missing) {
+                Optional<Car> car = Optional.ofNullable(loaded.get(id));
+                cars.putIf(id, car, () -> version.get() == seen);
+                car.ifPresent(c -> found.put(id, c));
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<Car> findPage(Keyset page, boolean availableOnly) {
+        PageKey key = new PageKey(availableOnly, page.cursor(), page.getLimit(), page.isDescending());
+        List<Car> cached = pages.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = version.get();
+        List<Car> loaded;
+        if (availableOnly) {
+            loaded = page.isDescending()
+                    ? carRepository.findByAvailableTrueAndOutOfServiceFalseAndIdLessThan(page.cursor(), page.pageable())
+                    : carRepository.findByAvailableTrueAndOutOfServiceFalseAndIdGreaterThan(page.cursor(), page.pageable());
+        } else {
+            loaded = page.isDescending()
+                    ? carRepository.findByIdLessThan(page.cursor(), page.pageable())
+                    : carRepository.findByIdGreaterThan(page.cursor(), page.pageable());
+        }
+        List<Car> rows = List.copyOf(loaded);
+        pages.putIf(key, rows, () -> version.get() == seen);
+        return rows;
+    }
+
+    public Car save(Car car) {
+        Car saved = carRepository.save(car);
+        changed(List.of(saved.getId()), true);
+        return saved;
+    }
+
+    public List<Car> saveAll(Collection<Car> toSave) {
+        List<Car> saved = carRepository.saveAll(toSave);
+        changed(saved.stream().map(Car::getId).toList(), false);
+        return saved;
+    }
+
+    public void delete(Car car) {
+        carRepository.delete(car);
+        changed(List.of(car.getId()), true);
+    }
+
+    // Bulk availability flip; must run inside a transaction
+    public int updateAvailability(Collection<Long> ids, boolean available) {
+        int updated = carRepository.updateAvailability(ids, available);
+        if (updated > 0) {
+            changed(List.copyOf(ids), false);
+        }
+        return updated;
+    }
+
+    // Plain JDBC batch insert for bulk loads: Hibernate can't batch IDENTITY inserts because it
+    // needs each generated id back immediately. Ids are not returned. Caches are dropped
+    // wholesale once the caller's transaction commits, however many batches it inserted.
+    public int insertAll(List<Car> batch) {
+        jdbcTemplate.batchUpdate(INSERT_CAR, batch, batch.size(), (ps, car) -> {
+            ps.setString(1, car.getMake());
+            ps.setString(2, car.getModel());
+            ps.setString(3, car.getType());
+            ps.setObject(4, car.getPricePerDay());
+            ps.setBoolean(5, car.isAvailable());
+            ps.setBoolean(6, car.isOutOfService());
+            ps.setString(7, car.getImageUrl());
+        });
+        changedAll();
+        return batch.size();
+    }
+
+    // Only applies if the car still shows the image the variants were made from
+    public boolean updateImageVariants(Long id, String imageUrl, String thumbnailUrl, String mediumUrl, String largeUrl) {
+        int updated = jdbcTemplate.update(UPDATE_IMAGE_VARIANTS, thumbnailUrl, mediumUrl, largeUrl, id, imageUrl);
+        if (updated > 0) {
+            changed(List.of(id), false);
+        }
+        return updated > 0;
+    }
+
+    // Bumped on every committed car write
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Strong ETag for anything rendered from the catalog: valid until the next car write
+    public String getETag() {
+        return getETag(version.get(), null);
+    }
+
+    // variant tells apart other representations of the same data, e.g. a gzip-encoded body
+    public String getETag(long version, String variant) {
+        return "\"" + epoch + "-" + version + (variant == null ? "" : "-" + variant) + "\"";
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("version", version.get());
+        stats.put("cars", cars.getStats());
+        stats.put("pages", pages.getStats());
+        return stats;
+    }
+
+    private void changed(List<Long> ids, boolean detailsChanged) {
+        Runnable invalidate = () -> {
+            // Bumped before (so in-flight loads aren't cached) and after (so an ETag taken
+            // while stale entries were still being dropped never matches the final state)
+            version.incrementAndGet();
+            for (Long id : ids) {
+                cars.invalidate(id);
+                pages.invalidateEntries((key, rows) -> key.covers(id, rows));
+                if (detailsChanged) {
+                    pricingService.invalidateCar(id);
+                }
+            }
+            // Listeners update synchronously, so they are current before the ETag moves on
+            events.publishEvent(new CatalogChangedEvent(ids, detailsChanged, false));
+            version.incrementAndGet();
+        };
+        // Invalidating before commit would let a concurrent read cache the old row again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    private void changedAll() {
+        Runnable invalidate = () -> {
+            version.incrementAndGet();
+            cars.clear();
+            pages.clear();
+            events.publishEvent(new CatalogChangedEvent(List.of(), true, true));
+            version.incrementAndGet();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate.run();
+            return;
+        }
+        // Once per transaction, however many batches it inserts
+        if (TransactionSynchronizationManager.hasResource(BULK_CHANGE)) return;
+        TransactionSynchronizationManager.bindResource(BULK_CHANGE, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(BULK_CHANGE);
+            }
+        });
+    }
+
+    private record PageKey(boolean availableOnly, long cursor, int limit, boolean descending) {
+
+        // A page is the first `limit` matching ids past the cursor, so a change to id can only
+        // alter it if id lies between the cursor and the last row (or anywhere past the
+        // cursor when the page isn't full)
+        boolean covers(long id, List<Car> rows) {
+            boolean pastCursor = descending ? id < cursor : id > cursor;
+            if (!pastCursor) return false;
+            if (rows.size() < limit) return true;
+            long last = rows.get(rows.size() - 1).getId();
+            return descending ? id >= last : id <= last;
+        }
+    }
+}
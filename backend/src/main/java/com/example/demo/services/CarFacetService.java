@@ -0,0 +1,247 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.payload.CarFacets;
+import com.example.demo.repositories.CarRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Facet counts (availability, type, price bucket) over a columnar snapshot of the cars table.
+ * Out-of-service cars are left out, as they are from search: "booked" means out on a rental.
+ *
+ * The snapshot keeps one row per car in primitive arrays ordered by id, with the type stored
+ * as a dictionary code, plus one bitset per availability state, type and price bucket. A count
+ * for any filter combination is an AND of a few bitsets and a popcount.
+ *
+ * Snapshots are immutable. A catalog change builds a new one from the previous snapshot and
+ * the changed rows, then swaps the reference, so readers never wait for a write.
+ */
+@Service
+public class CarFacetService {
+
+    private final CarRepository carRepository;
+    // Ascending lower bounds of every bucket after the first
+    private final double[] bucketBounds;
+    private final List<String> bucketLabels;
+
+    private volatile Snapshot snapshot;
+
+    public CarFacetService(CarRepository carRepository,
+                           @Value("${app.facets.priceBuckets:50,100,200}") String priceBuckets) {
+        this.carRepository = carRepository;
+        this.bucketBounds = Arrays.stream(priceBuckets.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToDouble(Double::parseDouble)
+                .sorted()
+                .distinct()
+                .toArray();
+        this.bucketLabels = labels(bucketBounds);
+        this.snapshot = new Builder(bucketBounds.length + 1).build();
+    }
+
+    @PostConstruct
+    public synchronized void build() {
+        Builder builder = new Builder(bucketBounds.length + 1);
+        carRepository.findAll().stream()
+                .filter(car -> !car.isOutOfService())
+                .sorted(Comparator.comparing(Car::getId))
+                .forEach(car -> builder.add(car.getId(), price(car), car.getType(), car.isAvailable()));
+        snapshot = builder.build();
+    }
+
+    // Loads and swaps under the monitor so snapshots are applied in the order they were read
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.allCars()) {
+            build();
+            return;
+        }
+        Map<Long, Car> changed = new TreeMap<>();
+        event.carIds().forEach(id -> changed.put(id, null));
+        for (Car car : carRepository.findAllById(event.carIds())) {
+            changed.put(car.getId(), car);
+        }
+        snapshot = merge(snapshot, changed);
+    }
+
+    public List<String> getPriceBuckets() {
+        return bucketLabels;
+    }
+
+    /**
+     * Counts for the given filters; null or empty means "don't filter". Unknown types match
+     * nothing; priceBucket must be one of getPriceBuckets().
+     */
+    public CarFacets count(Collection<String> types, String priceBucket, Boolean available) {
+        Snapshot s = snapshot;
+
+        BitSet typeMask = null;
+        if (types != null && !types.isEmpty()) {
+            typeMask = new BitSet(s.size);
+            for (String type : types) {
+                BitSet bits = s.typeBits.get(type);
+                if (bits != null) typeMask.or(bits);
+            }
+        }
+        BitSet priceMask = priceBucket == null ? null : s.bucketBits[bucketLabels.indexOf(priceBucket)];
+        BitSet availableMask = available == null ? null : available ? s.available : s.booked;
+
+        Map<String, Integer> availability = new LinkedHashMap<>();
+        BitSet base = and(typeMask, priceMask);
+        availability.put("available", count(base, s.available, s.size));
+        availability.put("booked", count(base, s.booked, s.size));
+
+        Map<String, Integer> typeCounts = new LinkedHashMap<>();
+        base = and(priceMask, availableMask);
+        for (Map.Entry<String, BitSet> type : s.typeBits.entrySet()) {
+            typeCounts.put(type.getKey(), count(base, type.getValue(), s.size));
+        }
+
+        Map<String, Integer> prices = new LinkedHashMap<>();
+        base = and(typeMask, availableMask);
+        for (int i = 0; i < bucketLabels.size(); i++) {
+            prices.put(bucketLabels.get(i), count(base, s.bucketBits[i], s.size));
+        }
+
+        BitSet all = and(and(typeMask, priceMask), availableMask);
+        return new CarFacets(all == null ? s.size : all.cardinality(), availability, typeCounts, prices);
+    }
+
+    private Snapshot merge(Snapshot old, Map<Long, Car> changed) {
+        Builder builder = new Builder(bucketBounds.length + 1);
+        int i = 0;
+        for (Map.Entry<Long, Car> change : changed.entrySet()) {
+            long id = change.getKey();
+            while (i < old.size && old.ids[i] < id) {
+                builder.add(old, i++);
+            }
+            if (i < old.size && old.ids[i] == id) {
+                i++;
+            }
+            // Deleted or taken out of service: the old row is simply not carried over
+            Car car = change.getValue();
+            if (car != null && !car.isOutOfService()) {
+                builder.add(id, price(car), car.getType(), car.isAvailable());
+            }
+        }
+        while (i < old.size) {
+            builder.add(old, i++);
+        }
+        return builder.build();
+    }
+
+    private int bucket(double price) {
+        int i = Arrays.binarySearch(bucketBounds, price);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private static double price(Car car) {
+        return car.getPricePerDay() == null ? 0.0 : car.getPricePerDay();
+    }
+
+    // null stands for "every car"
+    private static BitSet and(BitSet a, BitSet b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+
+    private static int count(BitSet base, BitSet bits, int size) {
+        BitSet matched = and(base, bits);
+        return matched == null ? size : matched.cardinality();
+    }
+
+    private static List<String> labels(double[] bounds) {
+        String[] labels = new String[bounds.length + 1];
+        String lower = "0";
+        for (int i = 0; i < bounds.length; i++) {
+            String upper = format(bounds[i]);
+            labels[i] = lower + "-" + upper;
+            lower = upper;
+        }
+        labels[bounds.length] = lower + "+";
+        return List.of(labels);
+    }
+
+    private static String format(double bound) {
+        return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+    }
+
+    private final class Builder {
+        private long[] ids = new long[64];
+        private double[] prices = new double[64];
+        private int[] typeCodes = new int[64];
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private final BitSet available = new BitSet();
+        private final int buckets;
+        private int size;
+
+        private Builder(int buckets) {
+            this.buckets = buckets;
+        }
+
+        private void add(Snapshot from, int row) {
+            add(from.ids[row], from.prices[row], from.typeNames[from.typeCodes[row]], from.available.get(row));
+        }
+
+        private void add(long id, double price, String type, boolean isAvailable) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                typeCodes = Arrays.copyOf(typeCodes, size * 2);
+            }
+            ids[size] = id;
+            prices[size] = price;
+            typeCodes[size] = dictionary.computeIfAbsent(type == null ? "" : type, t -> dictionary.size());
+            available.set(size, isAvailable);
+            size++;
+        }
+
+        private Snapshot build() {
+            String[] typeNames = dictionary.keySet().toArray(String[]::new);
+            BitSet[] byCode = new BitSet[typeNames.length];
+            for (int i = 0; i < byCode.length; i++) {
+                byCode[i] = new BitSet(size);
+            }
+            BitSet[] bucketBits = new BitSet[buckets];
+            for (int i = 0; i < buckets; i++) {
+                bucketBits[i] = new BitSet(size);
+            }
+            for (int row = 0; row < size; row++) {
+                byCode[typeCodes[row]].set(row);
+                bucketBits[bucket(prices[row])].set(row);
+            }
+            // Facet output lists types alphabetically
+            Map<String, BitSet> typeBits = new TreeMap<>();
+            for (int i = 0; i < typeNames.length; i++) {
+                typeBits.put(typeNames[i], byCode[i]);
+            }
+            BitSet booked = new BitSet(size);
+            booked.set(0, size);
+            booked.andNot(available);
+            return new Snapshot(size, Arrays.copyOf(ids, size), Arrays.copyOf(prices, size),
+                    Arrays.copyOf(typeCodes, size), typeNames, available, booked, typeBits, bucketBits);
+        }
+    }
+
+    // Never modified once built
+    private record Snapshot(int size, long[] ids, double[] prices, int[] typeCodes, String[] typeNames,
+                            BitSet available, BitSet booked, Map<String, BitSet> typeBits, BitSet[] bucketBits) {
+    }
+}
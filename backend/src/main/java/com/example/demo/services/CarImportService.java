@@ -0,0 +1,271 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.payload.CarImportReport;
+import com.example.demo.payload.CarImportReport.RowError;
+import com.example.demo.utils.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk car import from CSV (with a header row) or NDJSON, one row in memory at a time.
+ *
+ * Valid rows are written in JDBC batches through CarCatalogService.insertAll; invalid rows are
+ * skipped and reported with their line number. The whole import is one transaction, so a
+ * database error leaves nothing behind and the file can simply be fixed and sent again.
+ */
+@Service
+public class CarImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // cars columns are VARCHAR(255)
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final Set<String> COLUMNS = Set.of("make", "model", "type", "priceperday", "available", "imageurl");
+    private static final List<String> REQUIRED = List.of("make", "model", "type", "priceperday");
+
+    private final CarCatalogService carCatalogService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CarImportService(CarCatalogService carCatalogService,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper) {
+        this.carCatalogService = carCatalogService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Throws IllegalArgumentException if the file as a whole is unusable (e.g. a CSV header
+     * without the required columns); problems with single rows end up in the report instead.
+     */
+    public CarImportReport importCars(InputStream input, Format format, boolean dryRun) throws IOException {
+        long started = System.currentTimeMillis();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.CSV ? csvRows(reader) : ndjsonRows(reader);
+        Progress progress = new Progress();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    List<Car> batch = new ArrayList<>(BATCH_SIZE);
+                    for (Row row = rows.next(); row != null; row = rows.next()) {
+                        progress.rows++;
+                        if (row.error() != null) {
+                            progress.reject(row.line(), row.error());
+                            continue;
+                        }
+                        Car car = toCar(row.fields(), progress, row.line());
+                        if (car == null) continue;
+                        batch.add(car);
+                        if (batch.size() == BATCH_SIZE) {
+                            write(batch, dryRun, progress);
+                        }
+                    }
+                    write(batch, dryRun, progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (dryRun) {
+                    status.setRollbackOnly();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Car import: {} rows, {} imported, {} rejected in {} ms{}",
+                progress.rows, progress.imported, progress.rejected, elapsed, dryRun ? " (dry run)" : "");
+        return new CarImportReport(progress.rows, progress.imported, progress.rejected, dryRun,
+                progress.errors, progress.rejected > progress.errors.size(), elapsed);
+    }
+
+    private void write(List<Car> batch, boolean dryRun, Progress progress) {
+        if (batch.isEmpty()) return;
+        progress.imported += dryRun ? batch.size() : carCatalogService.insertAll(batch);
+        batch.clear();
+    }
+
+    // Null (and the reason recorded) if the row is invalid
+    private static Car toCar(Map<String, String> fields, Progress progress, long line) {
+        List<String> problems = new ArrayList<>();
+        String make = text(fields, "make", true, problems);
+        String model = text(fields, "model", true, problems);
+        String type = text(fields, "type", true, problems);
+        String imageUrl = text(fields, "imageurl", false, problems);
+
+        Double price = null;
+        String rawPrice = blankToNull(fields.get("priceperday"));
+        if (rawPrice == null) {
+            problems.add("pricePerDay is required");
+        } else {
+            try {
+                price = Double.valueOf(rawPrice);
+                if (!(price > 0) || price.isInfinite()) {
+                    problems.add("pricePerDay must be a positive number");
+                }
+            } catch (NumberFormatException e) {
+                problems.add("pricePerDay is not a number: " + rawPrice);
+            }
+        }
+
+        boolean available = true;
+        String rawAvailable = blankToNull(fields.get("available"));
+        if (rawAvailable != null) {
+            if (rawAvailable.equalsIgnoreCase("true")) {
+                available = true;
+            } else if (rawAvailable.equalsIgnoreCase("false")) {
+                available = false;
+            } else {
+                problems.add("available must be true or false");
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            progress.reject(line, String.join("; ", problems));
+            return null;
+        }
+        Car car = new Car(make, model, type, price, imageUrl);
+        // A new car can't be out on a rental yet, so available=false means out of service
+        car.setOutOfService(!available);
+        return car;
+    }
+
+    private static String text(Map<String, String> fields, String column, boolean required, List<String> problems) {
+        String value = blankToNull(fields.get(column));
+        String name = column.equals("imageurl") ? "imageUrl" : column;
+        if (value == null) {
+            if (required) problems.add(name + " is required");
+            return null;
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            problems.add(name + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        String[] columns = new String[header.size()];
+        for (int i = 0; i < columns.length; i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + header.get(i).trim()
+                        + "', expected make,model,type,pricePerDay[,available][,imageUrl]");
+            }
+            columns[i] = name;
+        }
+        for (String required : REQUIRED) {
+            if (!List.of(columns).contains(required)) {
+                throw new IllegalArgumentException("Missing required column " + required);
+            }
+        }
+
+        return () -> {
+            List<String> values = csv.next();
+            // Skip blank lines
+            while (values != null && values.size() == 1 && values.get(0).isBlank()) {
+                values = csv.next();
+            }
+            if (values == null) return null;
+            if (values.size() != columns.length) {
+                return new Row(csv.getRecordLine(), null,
+                        "Expected " + columns.length + " fields but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.length; i++) {
+                fields.put(columns[i], values.get(i));
+            }
+            return new Row(csv.getRecordLine(), fields, null);
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) return null;
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber[0], null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Row(lineNumber[0], null, "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                String name = field.getKey().toLowerCase(Locale.ROOT);
+                if (COLUMNS.contains(name) && !field.getValue().isNull()) {
+                    fields.put(name, field.getValue().asText());
+                }
+            });
+            return new Row(lineNumber[0], fields, null);
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        // Null at end of input
+        Row next() throws IOException;
+    }
+
+    // Either fields or error is set
+    private record Row(long line, Map<String, String> fields, String error) {
+    }
+
+    private static final class Progress {
+        private long rows;
+        private long imported;
+        private long rejected;
+        private final List<RowError> errors = new ArrayList<>();
+
+        private void reject(long line, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, error));
+            }
+        }
+    }
+}
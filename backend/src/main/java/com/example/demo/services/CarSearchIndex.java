@@ -0,0 +1,309 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.payload.SearchSuggestion;
+import com.example.demo.repositories.CarRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over the words of each car's make, model and type.
+ *
+ * Words live in a character trie whose word nodes hold the posting list (car id -> fields the
+ * word appears in), so both "cars with a word starting with x" and "words starting with x" are
+ * a walk down the prefix plus a walk over that subtree; the database is never asked. The index
+ * is built on startup and updated from CatalogChangedEvent, i.e. after every committed write.
+ *
+ * Only ids are stored; callers load the cars themselves (normally from the catalog cache).
+ * Out-of-service cars are not indexed, so search and typeahead never offer them.
+ */
+@Service
+public class CarSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarSearchIndex.class);
+
+    private static final int MAKE = 1;
+    private static final int MODEL = 2;
+    private static final int TYPE = 4;
+
+    public static final int MAX_QUERY_LENGTH = 100;
+
+    private final CarRepository carRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Node root = new Node();
+    private final Map<Long, Map<String, Integer>> indexedTerms = new HashMap<>();
+
+    public CarSearchIndex(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    // Writers load and apply under the monitor, so changes are applied in the order they were
+    // read; readers only wait for the apply
+    @PostConstruct
+    public synchronized void build() {
+        List<Car> cars = carRepository.findAll();
+        int indexed;
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            indexedTerms.clear();
+            for (Car car : cars) {
+                add(car);
+            }
+            indexed = indexedTerms.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} cars for text search", indexed);
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.allCars()) {
+            build();
+            return;
+        }
+        if (!event.detailsChanged()) return;
+        Map<Long, Car> current = carRepository.findAllById(event.carIds()).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.carIds()) {
+                remove(id);
+                Car car = current.get(id);
+                if (car != null) {
+                    add(car);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the cars matching every word of the query, best first. Each query word may be
+     * the start of a word in the car's make, model or type; a whole-word match scores twice a
+     * prefix match and make/model matches score above type matches. Ties go to the lower id.
+     */
+    public Hits search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return new Hits(List.of(), 0);
+
+        Map<Long, Integer> scores;
+        lock.readLock().lock();
+        try {
+            scores = matchAll(words);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> ids = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        return new Hits(ids, scores.size());
+    }
+
+    /**
+     * Completions for the last word of the query, limited to cars that match the words before
+     * it, most common first.
+     */
+    public List<SearchSuggestion> suggest(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return List.of();
+        String prefix = words.get(words.size() - 1);
+
+        List<SearchSuggestion> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = words.size() == 1 ? null : matchAll(words.subList(0, words.size() - 1)).keySet();
+            Node start = find(prefix);
+            if (start == null) return List.of();
+            forEachWord(start, node -> {
+                int cars = 0;
+                if (candidates == null) {
+                    cars = node.postings.size();
+                } else {
+                    for (Long id : node.postings.keySet()) {
+                        if (candidates.contains(id)) cars++;
+                    }
+                }
+                if (cars > 0) {
+                    suggestions.add(new SearchSuggestion(node.display, cars));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        suggestions.sort(Comparator.comparingInt(SearchSuggestion::cars).reversed()
+                .thenComparing(SearchSuggestion::term, String.CASE_INSENSITIVE_ORDER));
+        return suggestions.size() > limit ? List.copyOf(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            int[] words = new int[1];
+            forEachWord(root, node -> words[0]++);
+            return Map.of("cars", indexedTerms.size(), "words", words[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the lock. Cars matching every word, with their summed scores.
+    private Map<Long, Integer> matchAll(List<String> words) {
+        List<Map<Long, Integer>> perWord = new ArrayList<>(words.size());
+        for (String word : words) {
+            Map<Long, Integer> matches = match(word);
+            if (matches.isEmpty()) return Map.of();
+            perWord.add(matches);
+        }
+        // Intersect starting from the rarest word
+        perWord.sort(Comparator.comparingInt(Map::size));
+        Map<Long, Integer> scores = new HashMap<>(perWord.get(0));
+        for (int i = 1; i < perWord.size() && !scores.isEmpty(); i++) {
+            Map<Long, Integer> next = perWord.get(i);
+            scores.entrySet().removeIf(e -> !next.containsKey(e.getKey()));
+            scores.replaceAll((id, score) -> score + next.get(id));
+        }
+        return scores;
+    }
+
+    // Caller holds the lock. Best score per car for one query word.
+    private Map<Long, Integer> match(String prefix) {
+        Node start = find(prefix);
+        if (start == null) return Map.of();
+        Map<Long, Integer> scores = new HashMap<>();
+        forEachWord(start, node -> {
+            int exact = node == start ? 2 : 1;
+            node.postings.forEach((id, fields) -> scores.merge(id, weight(fields) * exact, Math::max));
+        });
+        return scores;
+    }
+
+    private static int weight(int fields) {
+        return (fields & (MAKE | MODEL)) != 0 ? 2 : 1;
+    }
+
+    private Node find(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.children.get(word.charAt(i));
+        }
+        return node;
+    }
+
+    private static void forEachWord(Node start, Consumer<Node> action) {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node.postings != null && !node.postings.isEmpty()) {
+                action.accept(node);
+            }
+            for (Node child : node.children.values()) {
+                stack.push(child);
+            }
+        }
+    }
+
+    // Caller holds the write lock
+    private void add(Car car) {
+        if (car.isOutOfService()) return;
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        Map<String, String> displays = new HashMap<>();
+        collect(car.getMake(), MAKE, terms, displays);
+        collect(car.getModel(), MODEL, terms, displays);
+        collect(car.getType(), TYPE, terms, displays);
+        if (terms.isEmpty()) return;
+
+        terms.forEach((term, fields) -> {
+            Node node = root;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+            }
+            if (node.postings == null) {
+                node.postings = new HashMap<>(4);
+                node.display = displays.get(term);
+            }
+            node.postings.merge(car.getId(), fields, (a, b) -> a | b);
+        });
+        indexedTerms.put(car.getId(), terms);
+    }
+
+    // Caller holds the write lock. Prunes branches that no longer lead to any word.
+    private void remove(Long carId) {
+        Map<String, Integer> terms = indexedTerms.remove(carId);
+        if (terms == null) return;
+        for (String term : terms.keySet()) {
+            Node[] path = new Node[term.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < term.length(); i++) {
+                path[i + 1] = path[i].children.get(term.charAt(i));
+            }
+            Node node = path[term.length()];
+            node.postings.remove(carId);
+            if (node.postings.isEmpty()) {
+                node.postings = null;
+                node.display = null;
+            }
+            for (int i = term.length(); i > 0; i--) {
+                Node n = path[i];
+                if (n.postings != null || !n.children.isEmpty()) break;
+                path[i - 1].children.remove(term.charAt(i - 1));
+            }
+        }
+    }
+
+    private static void collect(String text, int field, Map<String, Integer> terms, Map<String, String> displays) {
+        if (text == null) return;
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            String term = word.toLowerCase(Locale.ROOT);
+            terms.merge(term, field, (a, b) -> a | b);
+            displays.putIfAbsent(term, word);
+        }
+    }
+
+    static List<String> tokenize(String query) {
+        if (query == null) return List.of();
+        String text = query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query;
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    public record Hits(List<Long> carIds, int total) {
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        // Set only on nodes that end a word
+        private Map<Long, Integer> postings;
+        private String display;
+    }
+}
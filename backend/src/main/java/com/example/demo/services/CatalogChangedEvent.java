@@ -0,0 +1,11 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+/**
+ * Published by CarCatalogService once a car write has committed and the catalog caches have
+ * been invalidated. detailsChanged is false when only the availability flag moved. allCars
+ * marks bulk writes (carIds is then empty): listeners should reload everything.
+ */
+public record CatalogChangedEvent(List<Long> carIds, boolean detailsChanged, boolean allCars) {
+}
@@ -0,0 +1,83 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.utils.BoundedCache;
+import com.example.demo.utils.Keyset;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished response bodies for the car list endpoints: the JSON bytes and their gzip encoding,
+ * per catalog version and page. A hit skips the page lookup, Jackson and compression; the
+ * controller hands the byte array to the servlet output stream as is.
+ *
+ * Keys include the catalog version, so a write makes every older body unreachable at once and
+ * the LRU reclaims them.
+ */
+@Service
+public class CatalogResponseCache {
+
+    private final CarCatalogService carCatalogService;
+    private final ObjectMapper objectMapper;
+    private final BoundedCache<Key, Body> bodies;
+
+    public CatalogResponseCache(CarCatalogService carCatalogService,
+                                ObjectMapper objectMapper,
+                                @Value("${app.catalog.responseCacheSize:200}") int responseCacheSize,
+                                @Value("${app.catalog.ttlSeconds:300}") long ttlSeconds) {
+        this.carCatalogService = carCatalogService;
+        this.objectMapper = objectMapper;
+        this.bodies = new BoundedCache<>(responseCacheSize, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    // version is the catalog version the caller's ETag was built from
+    public Body page(long version, Keyset page, boolean availableOnly, String message) {
+        Key key = new Key(version, availableOnly, page.cursor(), page.getLimit(), page.isDescending());
+        Body body = bodies.get(key);
+        if (body != null) {
+            return body;
+        }
+        List<Car> cars = carCatalogService.findPage(page, availableOnly);
+        body = Body.of(serialize(page.response(message, cars, Car::getId)));
+        bodies.put(key, body);
+        return body;
+    }
+
+    public Map<String, Object> getStats() {
+        return bodies.getStats();
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog page", e);
+        }
+    }
+
+    public record Body(byte[] json, byte[] gzip) {
+
+        static Body of(byte[] json) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Body(json, compressed.toByteArray());
+        }
+    }
+
+    private record Key(long version, boolean availableOnly, long cursor, int limit, boolean descending) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.services;
+
+import com.example.demo.payload.BookingSummary;
+import com.example.demo.payload.BookingTotals;
+import com.example.demo.payload.CarTypeCount;
+import com.example.demo.payload.DashboardSummary;
+import com.example.demo.repositories.BookingRepository;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.utils.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin dashboard numbers. Each refresh is a handful of aggregate queries whose cost does not
+ * depend on what the client downloads; the result is cached briefly because the dashboard is
+ * polled and a few seconds of staleness is fine.
+ */
+@Service
+public class DashboardService {
+
+    private static final String KEY = "summary";
+    private static final int RECENT_BOOKINGS = 5;
+
+    private final UserRepository userRepository;
+    private final CarRepository carRepository;
+    private final BookingRepository bookingRepository;
+    private final BoundedCache<String, DashboardSummary> cache;
+
+    public DashboardService(UserRepository userRepository,
+                            CarRepository carRepository,
+                            BookingRepository bookingRepository,
+                            @Value("${app.admin.summaryTtlSeconds:15}") long summaryTtlSeconds) {
+        this.userRepository = userRepository;
+        this.carRepository = carRepository;
+        this.bookingRepository = bookingRepository;
+        this.cache = new BoundedCache<>(1, summaryTtlSeconds, TimeUnit.SECONDS);
+    }
+
+    public DashboardSummary getSummary() {
+        DashboardSummary summary = cache.get(KEY);
+        if (summary != null) {
+            return summary;
+        }
+        // Only one caller rebuilds an expired summary; the rest wait and reuse it
+        synchronized (this) {
+            summary = cache.get(KEY);
+            if (summary == null) {
+                summary = load();
+                cache.put(KEY, summary);
+            }
+            return summary;
+        }
+    }
+
+    private DashboardSummary load() {
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+
+        List<CarTypeCount> carsByType = carRepository.countByType();
+        long totalCars = carsByType.stream().mapToLong(CarTypeCount::cars).sum();
+        BookingTotals totals = bookingRepository.getTotals(today, monthStart, monthStart.plusMonths(1));
+        List<BookingSummary> recent = bookingRepository.findSummariesBefore(Long.MAX_VALUE,
+                PageRequest.of(0, RECENT_BOOKINGS, Sort.by(Sort.Direction.DESC, "id")));
+
+        return new DashboardSummary(
+                userRepository.count(),
+                totalCars,
+                totalCars == 0 ? 0.0 : (double) totals.carsOnRentToday() / totalCars,
+                carsByType,
+                totals,
+                recent,
+                Instant.now()
+        );
+    }
+}
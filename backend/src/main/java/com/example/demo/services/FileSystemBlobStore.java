@@ -0,0 +1,112 @@
+package com.example.demo.services;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Blobs as files under a local directory, laid out like their keys (ab/cd/<hash>.<ext>).
+// Replicas only see each other's images if the directory is on a shared volume.
+public class FileSystemBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public FileSystemBlobStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(root.resolve(key));
+    }
+
+    // Callers stage files on the same file system, so this is an atomic rename
+    @Override
+    public boolean put(String key, Path file, String contentType) throws IOException {
+        Path path = root.resolve(key);
+        if (Files.exists(path)) {
+            // Reused content counts as new for the garbage collector's grace period
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return false;
+        }
+        Files.createDirectories(path.getParent());
+        try {
+            Files.move(file, path, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            // A concurrent upload of the same bytes got there first
+            return false;
+        }
+    }
+
+    @Override
+    public Resource get(String key) {
+        Path path = root.resolve(key);
+        return Files.isRegularFile(path) ? new FileSystemResource(path) : null;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(root.resolve(key));
+    }
+
+    // Walks the shard directories in name order, skipping whole directories that lie before
+    // `after`, so each batch only reads the directories it returns blobs from
+    @Override
+    public List<Blob> list(String after, int limit) throws IOException {
+        List<Blob> blobs = new ArrayList<>();
+        collect(root, "", after == null ? "" : after, limit, blobs);
+        return blobs;
+    }
+
+    private void collect(Path dir, String prefix, String after, int limit, List<Blob> blobs) throws IOException {
+        List<Path> children;
+        try (Stream<Path> list = Files.list(dir)) {
+            children = list.sorted(Comparator.comparing(p -> p.getFileName().toString())).toList();
+        }
+        for (Path child : children) {
+            if (blobs.size() >= limit) return;
+            String name = prefix + child.getFileName();
+            // Uploads in progress, see ImageStore
+            if (prefix.isEmpty() && name.equals("tmp")) continue;
+            BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class);
+            if (attributes.isDirectory()) {
+                String dirPrefix = name + "/";
+                if (dirPrefix.compareTo(after) > 0 || after.startsWith(dirPrefix)) {
+                    collect(child, dirPrefix, after, limit, blobs);
+                }
+            } else if (name.compareTo(after) > 0) {
+                blobs.add(new Blob(name, attributes.size(), attributes.lastModifiedTime().toInstant()));
+            }
+        }
+    }
+
+    // Served by ImageController, with sendfile
+    @Override
+    public URI directUrl(String key) {
+        return null;
+    }
+
+    @Override
+    public Duration getDirectUrlValidity() {
+        return Duration.ZERO;
+    }
+
+    @Override
+    public String getType() {
+        return "filesystem";
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.payload.BookingDates;
+import com.example.demo.repositories.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps Car.available in step with the calendar: a car becomes unavailable on the day a booking
+ * starts and available again on the day it ends (end dates are exclusive).
+ *
+ * Only that flag is touched. A car an admin took out of service keeps Car.outOfService, which
+ * booking and the catalog check separately, so a return day never puts it back in the fleet.
+ *
+ * Upcoming pickup and return days sit in a min-heap. One worker thread sleeps until the earliest
+ * one is due, then re-checks just the affected cars against the bookings table and flips them
+ * with two batched UPDATEs. Nothing scans the cars or bookings tables on a timer.
+ *
+ * Stale events (e.g. for a cancelled booking) are harmless because the state is always
+ * re-derived from the bookings that exist when the event fires.
+ */
+@Service
+public class FleetStatusProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetStatusProcessor.class);
+
+    // Keeps IN lists at a reasonable size
+    private static final int BATCH_SIZE = 500;
+    private static final long RETRY_DELAY_MS = 30_000;
+
+    private final BookingRepository bookingRepository;
+    private final CarCatalogService carCatalogService;
+    private final TransactionTemplate transactionTemplate;
+    private final int lookbackDays;
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread worker;
+
+    private final AtomicLong markedOnRent = new AtomicLong();
+    private final AtomicLong markedReturned = new AtomicLong();
+    private volatile LocalDate lastRun;
+
+    public FleetStatusProcessor(BookingRepository bookingRepository,
+                                CarCatalogService carCatalogService,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${app.fleet.lookbackDays:30}") int lookbackDays) {
+        this.bookingRepository = bookingRepository;
+        this.carCatalogService = carCatalogService;
+        this.transactionTemplate = transactionTemplate;
+        this.lookbackDays = lookbackDays;
+        this.worker = new Thread(this::run, "fleet-status");
+        this.worker.setDaemon(true);
+    }
+
+    // Bookings that ended while the app was down are due immediately and get reconciled first
+    @PostConstruct
+    public void start() {
+        List<BookingDates> bookings = bookingRepository.findDatesEndingSince(LocalDate.now().minusDays(lookbackDays));
+        for (BookingDates booking : bookings) {
+            track(booking.carId(), booking.startDate(), booking.endDate());
+        }
+        worker.start();
+        logger.info("Fleet status processor tracking {} bookings", bookings.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.interrupt();
+    }
+
+    public void track(Booking booking) {
+        track(booking.getCar().getId(), booking.getStartDate(), booking.getEndDate());
+    }
+
+    public void track(Collection<Booking> bookings) {
+        for (Booking booking : bookings) {
+            track(booking);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int pending;
+        LocalDate next;
+        lock.lock();
+        try {
+            pending = events.size();
+            next = events.isEmpty() ? null : events.peek().day();
+        } finally {
+            lock.unlock();
+        }
+        return Map.of(
+                "pendingEvents", pending,
+                "nextEvent", next == null ? "none" : next.toString(),
+                "lastRun", lastRun == null ? "never" : lastRun.toString(),
+                "markedOnRent", markedOnRent.get(),
+                "markedReturned", markedReturned.get()
+        );
+    }
+
+    private void track(Long carId, LocalDate start, LocalDate end) {
+        lock.lock();
+        try {
+            Event head = events.peek();
+            events.add(new Event(start, carId));
+            events.add(new Event(end, carId));
+            // Only wake the worker if its current deadline moved earlier
+            if (head == null || start.isBefore(head.day())) {
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Set<Long> due = new LinkedHashSet<>();
+            LocalDate today;
+            lock.lock();
+            try {
+                today = LocalDate.now();
+                Event head = events.peek();
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                if (head.day().isAfter(today)) {
+                    // Wall-clock deadline, so it still fires at midnight across DST changes
+                    changed.awaitUntil(Date.from(head.day().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+                    continue;
+                }
+                while (!events.isEmpty() && !events.peek().day().isAfter(today)) {
+                    due.add(events.poll().carId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                process(new ArrayList<>(due), today);
+                lastRun = today;
+            } catch (RuntimeException e) {
+                logger.error("Fleet status update for {} cars failed: {}", due.size(), e.getMessage());
+                retryLater(due, today);
+            }
+        }
+    }
+
+    private void process(List<Long> carIds, LocalDate today) {
+        for (int i = 0; i < carIds.size(); i += BATCH_SIZE) {
+            List<Long> batch = carIds.subList(i, Math.min(i + BATCH_SIZE, carIds.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> onRent = new HashSet<>(bookingRepository.findCarIdsOnRent(batch, today));
+                List<Long> returned = batch.stream().filter(id -> !onRent.contains(id)).toList();
+                if (!onRent.isEmpty()) {
+                    markedOnRent.addAndGet(carCatalogService.updateAvailability(onRent, false));
+                }
+                if (!returned.isEmpty()) {
+                    markedReturned.addAndGet(carCatalogService.updateAvailability(returned, true));
+                }
+            });
+        }
+    }
+
+    private void retryLater(Set<Long> carIds, LocalDate today) {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        lock.lock();
+        try {
+            for (Long carId : carIds) {
+                events.add(new Event(today, carId));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Event(LocalDate day, Long carId) implements Comparable<Event> {
+        @Override
+        public int compareTo(Event other) {
+            return day.compareTo(other.day);
+        }
+    }
+}
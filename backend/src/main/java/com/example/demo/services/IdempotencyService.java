@@ -0,0 +1,102 @@
+package com.example.demo.services;
+
+import com.example.demo.utils.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the response of a request that was already handled under the same Idempotency-Key.
+ * Keys are scoped per user. The first request with a key runs; duplicates that arrive while it
+ * is still running wait for its result instead of executing again.
+ *
+ * Only final answers are kept: a 5xx or an exception drops the key so the client can retry.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final BoundedCache<String, Execution> executions;
+    private final long waitMs;
+
+    public IdempotencyService(@Value("${app.idempotency.maxEntries:10000}") int maxEntries,
+                              @Value("${app.idempotency.ttlSeconds:600}") long ttlSeconds,
+                              @Value("${app.idempotency.waitMs:10000}") long waitMs) {
+        this.executions = new BoundedCache<>(maxEntries, ttlSeconds, TimeUnit.SECONDS);
+        this.waitMs = waitMs;
+    }
+
+    // fingerprint identifies the request payload, so a reused key with different data is refused
+    public ResponseEntity<?> execute(Long userId, String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid Idempotency-Key"));
+        }
+
+        String cacheKey = userId + ":" + key;
+        Execution candidate = new Execution(fingerprint);
+        Execution execution = executions.computeIfAbsent(cacheKey, k -> candidate);
+
+        if (!execution.fingerprint.equals(fingerprint)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(Map.of("error", "Idempotency-Key was already used for a different request"));
+        }
+        if (execution != candidate) {
+            return replay(execution);
+        }
+
+        try {
+            ResponseEntity<?> response = action.get();
+            if (response.getStatusCode().is5xxServerError()) {
+                executions.invalidate(cacheKey, execution);
+            }
+            execution.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            executions.invalidate(cacheKey, execution);
+            execution.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return executions.getStats();
+    }
+
+    private ResponseEntity<?> replay(Execution execution) {
+        try {
+            ResponseEntity<?> original = execution.result.get(waitMs, TimeUnit.MILLISECONDS);
+            return ResponseEntity.status(original.getStatusCode())
+                    .headers(original.getHeaders())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(original.getBody());
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(409)
+                    .body(Map.of("error", "A request with this Idempotency-Key is still in progress"));
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Original request failed, please retry"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(503).body(Map.of("error", "Interrupted while waiting for original request"));
+        }
+    }
+
+    private static final class Execution {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+
+        private Execution(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
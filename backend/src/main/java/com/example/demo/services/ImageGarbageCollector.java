@@ -0,0 +1,225 @@
+package com.example.demo.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mark-and-sweep for stored images that no car points at any more: replaced uploads, variants
+ * of replaced uploads, and images of deleted cars.
+ *
+ * Mark reads every car's image URLs in id order, a batch at a time, so no query or transaction
+ * is long-lived. Sweep lists the blob store in key order, a batch at a time, and deletes blobs
+ * that weren't marked, at most deletesPerSecond, on its own thread; request traffic is never
+ * paused. Two things keep it from deleting an image that is about to be used:
+ * - blobs younger than the grace period are left alone (an upload is stored before the car
+ *   that uses it is saved, and variants before the car points at them);
+ * - candidates are checked against the cars table again right before they are deleted, in
+ *   case a car picked one up after the mark.
+ *
+ * Images bundled with the app (/images/cars/...) are not in the blob store and never collected.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    private static final String SELECT_IMAGE_URLS = """
+            SELECT id, image_url, thumbnail_url, medium_url, large_url FROM cars WHERE id > ? ORDER BY id LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+    private final int batchSize;
+    private final long deleteIntervalNanos;
+    private final Duration grace;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "image-gc");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong totalDeleted = new AtomicLong();
+    private final AtomicLong totalBytesReclaimed = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public ImageGarbageCollector(JdbcTemplate jdbcTemplate,
+                                 ImageStore imageStore,
+                                 @Value("${app.images.gc.batchSize:500}") int batchSize,
+                                 @Value("${app.images.gc.deletesPerSecond:50}") int deletesPerSecond,
+                                 @Value("${app.images.gc.graceHours:24}") long graceHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+        this.batchSize = batchSize;
+        this.deleteIntervalNanos = TimeUnit.SECONDS.toNanos(1) / deletesPerSecond;
+        this.grace = Duration.ofHours(graceHours);
+    }
+
+    // Only hands the run to the GC thread, so the shared scheduler thread isn't held up
+    @Scheduled(cron = "${app.images.gc.cron:-}")
+    public void scheduledRun() {
+        start();
+    }
+
+    // false if a run is already in progress
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+        worker.execute(() -> {
+            try {
+                run();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Image GC failed: {}", e.getMessage());
+                Map<String, Object> failed = new HashMap<>(lastRun);
+                failed.put("error", String.valueOf(e.getMessage()));
+                lastRun = failed;
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("totalDeleted", totalDeleted.get());
+        stats.put("totalBytesReclaimed", totalBytesReclaimed.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    private void run() throws IOException {
+        long started = System.currentTimeMillis();
+        Instant cutoff = Instant.ofEpochMilli(started).minus(grace);
+
+        Set<String> live = mark();
+
+        long scanned = 0;
+        long deleted = 0;
+        long bytes = 0;
+        long nextDelete = System.nanoTime();
+        String after = null;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<BlobStore.Blob> batch = imageStore.listStored(after, batchSize);
+            if (batch.isEmpty()) break;
+            after = batch.get(batch.size() - 1).key();
+            scanned += batch.size();
+
+            List<BlobStore.Blob> garbage = new ArrayList<>();
+            for (BlobStore.Blob blob : batch) {
+                if (!live.contains(blob.key()) && blob.lastModified().isBefore(cutoff)) {
+                    garbage.add(blob);
+                }
+            }
+            if (garbage.isEmpty()) continue;
+
+            Set<String> stillUsed = referenced(garbage);
+            for (BlobStore.Blob blob : garbage) {
+                if (stillUsed.contains(blob.key())) continue;
+                // Paced so a large backlog doesn't swamp the disk or the bucket
+                long wait = nextDelete - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                nextDelete = Math.max(nextDelete, System.nanoTime()) + deleteIntervalNanos;
+                imageStore.delete(blob.key());
+                deleted++;
+                bytes += blob.size();
+                totalDeleted.incrementAndGet();
+                totalBytesReclaimed.addAndGet(blob.size());
+            }
+        }
+
+        lastRun = Map.of(
+                "startedAt", Instant.ofEpochMilli(started).toString(),
+                "elapsedMs", System.currentTimeMillis() - started,
+                "live", live.size(),
+                "scanned", scanned,
+                "deleted", deleted,
+                "bytesReclaimed", bytes
+        );
+        if (deleted > 0) {
+            logger.info("Image GC deleted {} of {} stored images ({} bytes)", deleted, scanned, bytes);
+        }
+    }
+
+    // Keys of every stored image a car points at
+    private Set<String> mark() {
+        Set<String> live = new HashSet<>();
+        long after = 0;
+        while (true) {
+            long[] last = {-1};
+            int[] rows = {0};
+            jdbcTemplate.query(SELECT_IMAGE_URLS, (RowCallbackHandler) rs -> {
+                last[0] = rs.getLong(1);
+                rows[0]++;
+                for (int column = 2; column <= 5; column++) {
+                    addKey(live, rs.getString(column));
+                }
+            }, after, batchSize);
+            if (rows[0] < batchSize) return live;
+            after = last[0];
+        }
+    }
+
+    // Which of these blobs a car points at right now
+    private Set<String> referenced(List<BlobStore.Blob> blobs) {
+        if (blobs.isEmpty()) return Collections.emptySet();
+        List<Object> urls = new ArrayList<>();
+        for (BlobStore.Blob blob : blobs) {
+            urls.add(ImageStore.URL_PREFIX + blob.key());
+        }
+        String in = String.join(",", Collections.nCopies(urls.size(), "?"));
+        String sql = "SELECT image_url, thumbnail_url, medium_url, large_url FROM cars WHERE image_url IN (" + in
+                + ") OR thumbnail_url IN (" + in + ") OR medium_url IN (" + in + ") OR large_url IN (" + in + ")";
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < 4; i++) args.addAll(urls);
+
+        Set<String> used = new HashSet<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            for (int column = 1; column <= 4; column++) {
+                addKey(used, rs.getString(column));
+            }
+        }, args.toArray());
+        return used;
+    }
+
+    private static void addKey(Set<String> keys, String url) {
+        if (url != null && url.startsWith(ImageStore.URL_PREFIX)) {
+            keys.add(url.substring(ImageStore.URL_PREFIX.length()));
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.demo.services;
+
+import com.example.demo.utils.BoundedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for uploaded car images. An upload is streamed into a temp file
+ * while its SHA-256 is computed, then handed to the BlobStore as ab/cd/abcd....ext, so the same
+ * image uploaded twice is stored once and its URL never changes meaning.
+ *
+ * Images are served from /images/** by ImageController, either from local files or by
+ * redirecting to the blob store. Only the copy buffer is ever on the heap, however large the
+ * upload.
+ */
+@Service
+public class ImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStore.class);
+
+    public static final String URL_PREFIX = "/images/";
+
+    private static final Set<String> EXTENSIONS = Set.of("jpg", "png", "gif", "webp");
+    private static final Pattern KEY = Pattern.compile("[A-Za-z0-9_.-]+(/[A-Za-z0-9_.-]+)*");
+    private static final Pattern HASHED_KEY = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.[a-z]+");
+    private static final long CHUNK = 1 << 20;
+
+    private final BlobStore blobStore;
+    private final Path tmp;
+    private final BoundedCache<String, byte[]> memoryCache;
+    private final int memoryCacheMaxFileBytes;
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    public ImageStore(BlobStore blobStore,
+                      @Value("${app.images.dir:data/images}") String dir,
+                      @Value("${app.images.memoryCacheSize:500}") int memoryCacheSize,
+                      @Value("${app.images.memoryCacheMaxFileBytes:65536}") int memoryCacheMaxFileBytes) throws IOException {
+        this.blobStore = blobStore;
+        // Same file system as a local blob store, so storing an upload is a rename
+        this.tmp = Files.createDirectories(Paths.get(dir).toAbsolutePath().normalize().resolve("tmp"));
+        // Content never changes under a name; the TTL only ages out bundled images in dev
+        this.memoryCache = new BoundedCache<>(memoryCacheSize, 1, TimeUnit.HOURS);
+        this.memoryCacheMaxFileBytes = memoryCacheMaxFileBytes;
+        logger.info("Images stored in {} blob store", blobStore.getType());
+    }
+
+    // Returns the public URL of the stored image
+    public String store(MultipartFile file) throws IOException {
+        String extension = extension(file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            return store(in, extension);
+        }
+    }
+
+    public String store(InputStream in, String extension) throws IOException {
+        MessageDigest sha256 = sha256();
+        Path upload = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            long size;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, sha256));
+                 FileChannel target = FileChannel.open(upload, StandardOpenOption.WRITE)) {
+                size = copy(source, target);
+                target.force(false);
+            }
+
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String key = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+            if (blobStore.put(key, upload, contentType(key))) {
+                stored.incrementAndGet();
+                bytesWritten.addAndGet(size);
+            } else {
+                deduplicated.incrementAndGet();
+            }
+            return URL_PREFIX + key;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    // Content of a stored or bundled image by its public URL, or null if the URL isn't one of ours
+    public InputStream open(String url) throws IOException {
+        if (url == null || !url.startsWith(URL_PREFIX)) return null;
+        Resource image = find(url.substring(URL_PREFIX.length()));
+        return image == null ? null : image.getInputStream();
+    }
+
+    // Stored or bundled image for the part of a URL after /images/, or null
+    public Resource find(String key) throws IOException {
+        if (!KEY.matcher(key).matches() || key.contains("..") || key.startsWith("tmp/")) return null;
+        if (isContentAddressed(key)) {
+            Resource stored = blobStore.get(key);
+            if (stored != null) return stored;
+        }
+        ClassPathResource bundled = new ClassPathResource("static/images/" + key);
+        return bundled.exists() ? bundled : null;
+    }
+
+    // Where a browser can fetch a stored image directly, if the blob store offers that
+    public URI directUrl(String key) {
+        return isContentAddressed(key) ? blobStore.directUrl(key) : null;
+    }
+
+    public Duration getDirectUrlValidity() {
+        return blobStore.getDirectUrlValidity();
+    }
+
+    // Stored images in key order, a batch at a time (for ImageGarbageCollector)
+    public List<BlobStore.Blob> listStored(String after, int limit) throws IOException {
+        return blobStore.list(after, limit);
+    }
+
+    public void delete(String key) throws IOException {
+        blobStore.delete(key);
+        memoryCache.invalidate(key);
+    }
+
+    // Stored names are the SHA-256 of the content, so what a name points to never changes
+    public static boolean isContentAddressed(String key) {
+        return HASHED_KEY.matcher(key).matches();
+    }
+
+    // Whole content of small images (thumbnails, mostly), with the most requested kept in
+    // memory; null for anything bigger, which is better sent straight from the file
+    public byte[] readCached(String key, Resource image, long length) throws IOException {
+        if (length > memoryCacheMaxFileBytes) return null;
+        byte[] bytes = memoryCache.get(key);
+        if (bytes == null) {
+            try (InputStream in = image.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            memoryCache.put(key, bytes);
+        }
+        return bytes;
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "store", blobStore.getType(),
+                "stored", stored.get(),
+                "deduplicated", deduplicated.get(),
+                "bytesWritten", bytesWritten.get(),
+                "memoryCache", memoryCache.getStats()
+        );
+    }
+
+    // Lowercased and checked against the image types we serve; anything else would be served
+    // back from our origin with whatever type its name implies
+    public static String extension(String filename) {
+        int dot = filename == null ? -1 : filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (extension.equals("jpeg")) extension = "jpg";
+        if (!EXTENSIONS.contains(extension)) {
+            throw new IllegalArgumentException("Unsupported image type, expected one of " + EXTENSIONS);
+        }
+        return extension;
+    }
+
+    // transferFrom hands the copy to the channel, which reads straight into the file where it can
+    private static long copy(ReadableByteChannel source, FileChannel target) throws IOException {
+        long position = 0;
+        while (true) {
+            long n = target.transferFrom(source, position, CHUNK);
+            if (n <= 0) break;
+            position += n;
+        }
+        return position;
+    }
+
+    private static String contentType(String key) {
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.repositories.CarRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the thumbnail/medium/large copies of car images that list pages show instead of
+ * the original upload. Work runs on a small fixed pool behind a bounded queue, never on the
+ * request thread; when the queue is full the car keeps showing its original image and is
+ * picked up again by the backfill at the next start.
+ *
+ * Variants are written through ImageStore, so they are content-addressed like uploads. They
+ * are WebP when an ImageIO WebP writer is installed, otherwise JPEG (PNG for images with
+ * transparency). Images are never scaled up: a variant wider than the original is the original.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final int THUMBNAIL_WIDTH = 400;
+    private static final int MEDIUM_WIDTH = 800;
+    private static final int LARGE_WIDTH = 1600;
+    private static final float QUALITY = 0.82f;
+    private static final long MAX_DECODED_PIXELS = 40_000_000;
+
+    private final CarRepository carRepository;
+    private final CarCatalogService carCatalogService;
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor workers;
+    private final String lossyFormat;
+
+    // Cars queued or in progress, so repeated saves don't queue the same work twice
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public ImageVariantService(CarRepository carRepository,
+                               CarCatalogService carCatalogService,
+                               ImageStore imageStore,
+                               @Value("${app.images.variantThreads:2}") int threads,
+                               @Value("${app.images.variantQueue:200}") int queueCapacity) {
+        this.carRepository = carRepository;
+        this.carCatalogService = carCatalogService;
+        this.imageStore = imageStore;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "image-variants-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.lossyFormat = ImageIO.getImageWritersByFormatName("webp").hasNext() ? "webp" : "jpg";
+    }
+
+    // Cars saved before variants existed, or whose work was dropped or lost in a restart
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        submit(() -> {
+            List<Long> ids = carRepository.findIdsMissingImageVariants();
+            if (!ids.isEmpty()) {
+                logger.info("Generating image variants for {} cars", ids.size());
+            }
+            for (Long id : ids) {
+                if (pending.add(id)) generate(id);
+            }
+        });
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.allCars()) {
+            backfill();
+            return;
+        }
+        if (!event.detailsChanged()) return;
+        for (Car car : carCatalogService.findAllById(event.carIds())) {
+            if (car.getImageUrl() != null && car.getThumbnailUrl() == null && pending.add(car.getId())) {
+                Long id = car.getId();
+                if (!submit(() -> generate(id))) pending.remove(id);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "format", lossyFormat,
+                "queued", workers.getQueue().size(),
+                "active", workers.getActiveCount(),
+                "generated", generated.get(),
+                "skipped", skipped.get(),
+                "failed", failed.get(),
+                "dropped", dropped.get()
+        );
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            workers.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            return false;
+        }
+    }
+
+    private void generate(Long carId) {
+        try {
+            Car car = carRepository.findById(carId).orElse(null);
+            if (car == null || car.getImageUrl() == null || car.getThumbnailUrl() != null) return;
+            String source = car.getImageUrl();
+
+            BufferedImage original = read(source);
+            if (original == null) {
+                // External URL or a file we can't decode; nothing to do until the image changes.
+                // The original stands in for every size, so the backfill doesn't pick it up again
+                if (carCatalogService.updateImageVariants(carId, source, source, source, source)) {
+                    skipped.incrementAndGet();
+                }
+                return;
+            }
+            // Each size is scaled from the next larger one, which is cheaper and just as sharp
+            BufferedImage large = scaleToWidth(original, LARGE_WIDTH);
+            BufferedImage medium = scaleToWidth(large != null ? large : original, MEDIUM_WIDTH);
+            BufferedImage thumbnail = scaleToWidth(medium != null ? medium : original, THUMBNAIL_WIDTH);
+            String largeUrl = large == null ? source : write(large);
+            String mediumUrl = medium == null ? largeUrl : write(medium);
+            String thumbnailUrl = thumbnail == null ? mediumUrl : write(thumbnail);
+
+            if (carCatalogService.updateImageVariants(carId, source, thumbnailUrl, mediumUrl, largeUrl)) {
+                generated.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            logger.warn("Image variants for car {} failed: {}", carId, e.getMessage());
+        } finally {
+            pending.remove(carId);
+        }
+    }
+
+    // Large originals are subsampled while decoding, so a 6000px photo is never fully
+    // decoded just to produce a 1600px copy
+    private BufferedImage read(String url) throws IOException {
+        try (InputStream in = imageStore.open(url)) {
+            if (in == null) return null;
+            try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) return null;
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, true, true);
+                    int width = reader.getWidth(0);
+                    int step = Math.max(1, width / (2 * LARGE_WIDTH));
+                    // Guards against tiny files that claim enormous dimensions
+                    if ((long) width * reader.getHeight(0) / ((long) step * step) > MAX_DECODED_PIXELS) {
+                        return null;
+                    }
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(step, step, 0, 0);
+                    return reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+    }
+
+    // null if the image is already no wider than width
+    private static BufferedImage scaleToWidth(BufferedImage image, int width) {
+        if (image == null || image.getWidth() <= width) return null;
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        // Halving steps keep bilinear filtering from skipping most of the source pixels
+        do {
+            int w = Math.max(width, current.getWidth() / 2);
+            int h = Math.max(1, (int) Math.round((double) image.getHeight() * w / image.getWidth()));
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private String write(BufferedImage image) throws IOException {
+        String format = image.getColorModel().hasAlpha() && lossyFormat.equals("jpg") ? "png" : lossyFormat;
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!format.equals("png") && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return imageStore.store(new ByteArrayInputStream(out.toByteArray()), format);
+    }
+}
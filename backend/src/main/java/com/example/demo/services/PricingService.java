@@ -0,0 +1,255 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Car;
+import com.example.demo.payload.PriceQuote;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.utils.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rental price quotes. The daily rate of a car is adjusted by weekend and seasonal multipliers,
+ * and longer rentals get a percentage off the total.
+ *
+ * Rules come from app.pricing.* and are compiled once per car type into a day-of-year table,
+ * so a quote is one array lookup per rental day. Quotes themselves are memoized per
+ * (car, range) until the car is changed. Like the catalog cache, a quote is only cached if no
+ * car was invalidated while it was being computed, so a pre-change price can't come back.
+ */
+@Service
+public class PricingService {
+
+    public static final int MAX_QUOTE_DAYS = 365;
+
+    // Day-of-year slots of a leap year, so Feb 29 has its own slot
+    private static final int DAYS_IN_TABLE = 366;
+
+    private final CarRepository carRepository;
+    private final double weekendMultiplier;
+    private final Map<String, Double> weekendMultiplierByType;
+    private final List<Season> seasons;
+    private final int[] discountMinDays;
+    private final double[] discountRates;
+
+    private final Map<String, RuleSet> ruleSets = new ConcurrentHashMap<>();
+    private final BoundedCache<QuoteKey, PriceQuote> quotes;
+    // Bumped by every invalidation
+    private final AtomicLong version = new AtomicLong();
+
+    public PricingService(CarRepository carRepository,
+                          @Value("${app.pricing.weekendMultiplier:1.0}") double weekendMultiplier,
+                          @Value("${app.pricing.weekendMultiplierByType:}") String weekendMultiplierByType,
+                          @Value("${app.pricing.seasons:}") String seasons,
+                          @Value("${app.pricing.durationDiscounts:}") String durationDiscounts,
+                          @Value("${app.pricing.quoteCacheSize:50000}") int quoteCacheSize,
+                          @Value("${app.pricing.quoteTtlSeconds:3600}") long quoteTtlSeconds) {
+        this.carRepository = carRepository;
+        this.weekendMultiplier = weekendMultiplier;
+        this.weekendMultiplierByType = parseTypeMultipliers(weekendMultiplierByType);
+        this.seasons = parseSeasons(seasons);
+
+        // Longest tier first, so the first match is the best discount
+        double[][] tiers = parseList(durationDiscounts).stream()
+                .map(tier -> tier.split(":"))
+                .map(parts -> new double[]{Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim())})
+                .sorted((a, b) -> Double.compare(b[0], a[0]))
+                .toArray(double[][]::new);
+        this.discountMinDays = Arrays.stream(tiers).mapToInt(tier -> (int) tier[0]).toArray();
+        this.discountRates = Arrays.stream(tiers).mapToDouble(tier -> tier[1]).toArray();
+
+        this.quotes = new BoundedCache<>(quoteCacheSize, quoteTtlSeconds, TimeUnit.SECONDS);
+    }
+
+    public Optional<PriceQuote> quote(Long carId, LocalDate start, LocalDate end) {
+        PriceQuote cached = quotes.get(new QuoteKey(carId, start, end));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long seen = version.get();
+        return carRepository.findById(carId).map(car -> store(car, start, end, seen));
+    }
+
+    // Quotes many cars for the same range with at most one query for the cars not in the cache.
+    // Unknown ids are left out; the result follows the order of carIds.
+    public List<PriceQuote> quoteAll(Collection<Long> carIds, LocalDate start, LocalDate end) {
+        Map<Long, PriceQuote> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long carId : new LinkedHashSet<>(carIds)) {
+            PriceQuote cached = quotes.get(new QuoteKey(carId, start, end));
+            if (cached != null) {
+                found.put(carId, cached);
+            } else {
+                missing.add(carId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long seen = version.get();
+            for (Car car : carRepository.findAllById(missing)) {
+                found.put(car.getId(), store(car, start, end, seen));
+            }
+        }
+
+        List<PriceQuote> result = new ArrayList<>(found.size());
+        for (Long carId : new LinkedHashSet<>(carIds)) {
+            PriceQuote quote = found.get(carId);
+            if (quote != null) result.add(quote);
+        }
+        return result;
+    }
+
+    // Called whenever a car's price or type may have changed
+    public void invalidateCar(Long carId) {
+        version.incrementAndGet();
+        quotes.invalidateIf(key -> key.carId().equals(carId));
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "ruleSets", ruleSets.size(),
+                "quoteCache", quotes.getStats()
+        );
+    }
+
+    // seen is the version read before the car was loaded
+    private PriceQuote store(Car car, LocalDate start, LocalDate end, long seen) {
+        PriceQuote quote = compute(car, start, end);
+        quotes.putIf(new QuoteKey(car.getId(), start, end), quote, () -> version.get() == seen);
+        return quote;
+    }
+
+    private PriceQuote compute(Car car, LocalDate start, LocalDate end) {
+        int days = (int) ChronoUnit.DAYS.between(start, end);
+        if (days <= 0 || days > MAX_QUOTE_DAYS) {
+            throw new IllegalArgumentException("Rental must be between 1 and " + MAX_QUOTE_DAYS + " days");
+        }
+        double dailyRate = car.getPricePerDay() == null ? 0.0 : car.getPricePerDay();
+        RuleSet rules = ruleSets.computeIfAbsent(car.getType() == null ? "" : car.getType(), this::compile);
+
+        double adjusted = 0;
+        LocalDate date = start;
+        for (int i = 0; i < days; i++) {
+            adjusted += dailyRate * rules.factor(date);
+            date = date.plusDays(1);
+        }
+        double discountRate = rules.discountRate(days);
+
+        BigDecimal adjustedTotal = money(adjusted);
+        BigDecimal discount = money(adjusted * discountRate);
+        return new PriceQuote(
+                car.getId(), start, end, days,
+                money(dailyRate),
+                money(dailyRate * days),
+                adjustedTotal,
+                BigDecimal.valueOf(discountRate),
+                discount,
+                adjustedTotal.subtract(discount)
+        );
+    }
+
+    private RuleSet compile(String type) {
+        double[] seasonFactors = new double[DAYS_IN_TABLE];
+        Arrays.fill(seasonFactors, 1.0);
+        for (Season season : seasons) {
+            int from = slot(season.from());
+            int to = slot(season.to());
+            // Ranges may wrap around the new year (e.g. 12-20..01-05); overlaps keep the higher rate
+            for (int i = from; ; i = (i + 1) % DAYS_IN_TABLE) {
+                seasonFactors[i] = Math.max(seasonFactors[i], season.multiplier());
+                if (i == to) break;
+            }
+        }
+        double weekend = weekendMultiplierByType.getOrDefault(type.toLowerCase(), weekendMultiplier);
+        return new RuleSet(seasonFactors, weekend, discountMinDays, discountRates);
+    }
+
+    private static int slot(MonthDay day) {
+        return LocalDate.of(2000, day.getMonth(), day.getDayOfMonth()).getDayOfYear() - 1;
+    }
+
+    private static BigDecimal money(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // "SUV:1.25,Sedan:1.1"
+    private static Map<String, Double> parseTypeMultipliers(String value) {
+        Map<String, Double> result = new HashMap<>();
+        for (String entry : parseList(value)) {
+            String[] parts = entry.split(":");
+            result.put(parts[0].trim().toLowerCase(), Double.parseDouble(parts[1].trim()));
+        }
+        return result;
+    }
+
+    // "06-15..08-31:1.2,12-20..01-05:1.3"
+    private static List<Season> parseSeasons(String value) {
+        List<Season> result = new ArrayList<>();
+        for (String entry : parseList(value)) {
+            String[] parts = entry.split(":");
+            String[] range = parts[0].split("\\.\\.");
+            result.add(new Season(
+                    MonthDay.parse("--" + range[0].trim()),
+                    MonthDay.parse("--" + range[1].trim()),
+                    Double.parseDouble(parts[1].trim())));
+        }
+        return result;
+    }
+
+    private static List<String> parseList(String value) {
+        if (value == null || value.isBlank()) return List.of();
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+
+    private record Season(MonthDay from, MonthDay to, double multiplier) {
+    }
+
+    private record QuoteKey(Long carId, LocalDate start, LocalDate end) {
+    }
+
+    private static final class RuleSet {
+        private final double[] weekdayFactors;
+        private final double[] weekendFactors;
+        private final int[] discountMinDays;
+        private final double[] discountRates;
+
+        private RuleSet(double[] seasonFactors, double weekend, int[] discountMinDays, double[] discountRates) {
+            this.weekdayFactors = seasonFactors;
+            this.weekendFactors = Arrays.stream(seasonFactors).map(f -> f * weekend).toArray();
+            this.discountMinDays = discountMinDays;
+            this.discountRates = discountRates;
+        }
+
+        private double factor(LocalDate date) {
+            int slot = date.getDayOfYear() - 1;
+            // Non-leap years skip the Feb 29 slot
+            if (!date.isLeapYear() && slot >= 59) slot++;
+            DayOfWeek dow = date.getDayOfWeek();
+            boolean weekend = dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY;
+            return weekend ? weekendFactors[slot] : weekdayFactors[slot];
+        }
+
+        private double discountRate(int days) {
+            for (int i = 0; i < discountMinDays.length; i++) {
+                if (days >= discountMinDays[i]) return discountRates[i];
+            }
+            return 0.0;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.payload.RollupSource;
+import com.example.demo.repositories.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the per-day rollup tables (rollup_car_day, rollup_type_day) in step with bookings.
+ *
+ * Creating or cancelling a booking only adds its per-day deltas to an in-memory buffer, merged
+ * by key; a scheduled flush writes the buffer with two batched upserts. Booking requests never
+ * wait on analytics writes, and a busy day/type row is updated once per flush rather than once
+ * per booking. Deltas not yet flushed are lost if the process dies; rebuild() recomputes both
+ * tables from the bookings table and runs on startup when they are empty.
+ *
+ * Revenue uses the car's daily price at the time of the change, like the dashboard totals.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPSERT_CAR_DAY = """
+            INSERT INTO rollup_car_day (rollup_date, car_id, rental_days, revenue) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE rental_days = rental_days + VALUES(rental_days), revenue = revenue + VALUES(revenue)
+            """;
+
+    private static final String UPSERT_TYPE_DAY = """
+            INSERT INTO rollup_type_day (rollup_date, car_type, rental_days, revenue) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE rental_days = rental_days + VALUES(rental_days), revenue = revenue + VALUES(revenue)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Guarded by this
+    private Map<CarDay, Delta> pendingCarDays = new HashMap<>();
+    private Map<TypeDay, Delta> pendingTypeDays = new HashMap<>();
+
+    // Flushes and rebuilds never overlap
+    private final Object writeLock = new Object();
+
+    public RollupService(JdbcTemplate jdbcTemplate,
+                         BookingRepository bookingRepository,
+                         TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void recordBooked(Booking booking) {
+        record(booking, 1);
+    }
+
+    public void recordBooked(Collection<Booking> bookings) {
+        for (Booking booking : bookings) {
+            record(booking, 1);
+        }
+    }
+
+    public void recordCancelled(Booking booking) {
+        record(booking, -1);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rollups.flushIntervalMs:5000}")
+    public void flush() {
+        synchronized (writeLock) {
+            Map<CarDay, Delta> carDays;
+            Map<TypeDay, Delta> typeDays;
+            synchronized (this) {
+                if (pendingCarDays.isEmpty()) return;
+                carDays = pendingCarDays;
+                typeDays = pendingTypeDays;
+                pendingCarDays = new HashMap<>();
+                pendingTypeDays = new HashMap<>();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(carDays, typeDays));
+            } catch (RuntimeException e) {
+                // Keep the deltas for the next attempt
+                logger.error("Rollup flush of {} car-days failed: {}", carDays.size(), e.getMessage());
+                synchronized (this) {
+                    carDays.forEach((key, delta) -> pendingCarDays.computeIfAbsent(key, k -> new Delta()).add(delta));
+                    typeDays.forEach((key, delta) -> pendingTypeDays.computeIfAbsent(key, k -> new Delta()).add(delta));
+                }
+            }
+        }
+    }
+
+    // Recomputes both tables from scratch. Bookings made while it runs are still counted,
+    // but one that commits in the middle of the scan can be counted twice; run it off-peak.
+    public Map<String, Object> rebuild() {
+        synchronized (writeLock) {
+            long started = System.currentTimeMillis();
+            flush();
+            long[] bookings = new long[1];
+            int[] rows = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM rollup_car_day");
+                jdbcTemplate.update("DELETE FROM rollup_type_day");
+
+                Map<CarDay, Delta> carDays = new HashMap<>();
+                Map<TypeDay, Delta> typeDays = new HashMap<>();
+                try (Stream<RollupSource> sources = bookingRepository.streamRollupSources()) {
+                    sources.forEach(source -> {
+                        accumulate(source.startDate(), source.endDate(), source.carId(), source.carType(),
+                                source.pricePerDay(), 1, carDays, typeDays);
+                        bookings[0]++;
+                    });
+                }
+                write(carDays, typeDays);
+                return new int[]{carDays.size(), typeDays.size()};
+            });
+            logger.info("Rebuilt rollups from {} bookings in {} ms", bookings[0], System.currentTimeMillis() - started);
+            return Map.of(
+                    "bookings", bookings[0],
+                    "carDays", rows[0],
+                    "typeDays", rows[1],
+                    "elapsedMs", System.currentTimeMillis() - started
+            );
+        }
+    }
+
+    // Backfill for databases that had bookings before the rollup tables existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        Long rollups = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rollup_type_day", Long.class);
+        if (rollups != null && rollups == 0 && bookingRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    // Optional periodic full rebuild to correct drift (e.g. price changes between booking and cancel)
+    @Scheduled(cron = "${app.rollups.rebuildCron:-}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private synchronized void record(Booking booking, int sign) {
+        Car car = booking.getCar();
+        accumulate(booking.getStartDate(), booking.getEndDate(), car.getId(), car.getType(), car.getPricePerDay(),
+                sign, pendingCarDays, pendingTypeDays);
+    }
+
+    private static void accumulate(LocalDate start, LocalDate end, Long carId, String type, Double pricePerDay,
+                                   int sign, Map<CarDay, Delta> carDays, Map<TypeDay, Delta> typeDays) {
+        double price = pricePerDay == null ? 0.0 : pricePerDay;
+        String carType = type == null ? "" : type;
+        for (LocalDate day = start; day.isBefore(end); day = day.plusDays(1)) {
+            carDays.computeIfAbsent(new CarDay(day, carId), k -> new Delta()).add(sign, sign * price);
+            typeDays.computeIfAbsent(new TypeDay(day, carType), k -> new Delta()).add(sign, sign * price);
+        }
+    }
+
+    private void write(Map<CarDay, Delta> carDays, Map<TypeDay, Delta> typeDays) {
+        List<Object[]> carRows = new ArrayList<>(carDays.size());
+        carDays.forEach((key, delta) -> carRows.add(new Object[]{Date.valueOf(key.day()), key.carId(), delta.days, delta.revenue}));
+        List<Object[]> typeRows = new ArrayList<>(typeDays.size());
+        typeDays.forEach((key, delta) -> typeRows.add(new Object[]{Date.valueOf(key.day()), key.type(), delta.days, delta.revenue}));
+
+        for (int i = 0; i < carRows.size(); i += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPSERT_CAR_DAY, carRows.subList(i, Math.min(i + BATCH_SIZE, carRows.size())));
+        }
+        for (int i = 0; i < typeRows.size(); i += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPSERT_TYPE_DAY, typeRows.subList(i, Math.min(i + BATCH_SIZE, typeRows.size())));
+        }
+    }
+
+    private record CarDay(LocalDate day, Long carId) {
+    }
+
+    private record TypeDay(LocalDate day, String type) {
+    }
+
+    private static final class Delta {
+        private long days;
+        private double revenue;
+
+        private void add(long days, double revenue) {
+            this.days += days;
+            this.revenue += revenue;
+        }
+
+        private void add(Delta other) {
+            add(other.days, other.revenue);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.example.demo.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Blobs in an S3-compatible bucket (AWS S3, MinIO, ...), addressed path-style so any endpoint
+ * works. Requests are signed with AWS Signature V4 directly on the JDK HttpClient.
+ *
+ * Uploads stream from the staged file. Anything bigger than partSize goes up as a multipart
+ * upload, one part at a time, so no upload is ever held in memory. Browsers are redirected to
+ * presigned GET URLs and fetch the bytes from the bucket, not through the app. The URLs are
+ * signed for fixed time windows, so every request in a window gets the same URL and browsers
+ * can cache it.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3BlobStore.class);
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+    private static final Pattern CONTENTS = Pattern.compile("<Contents>(.*?)</Contents>", Pattern.DOTALL);
+    // S3 rejects parts under 5MB (except the last)
+    private static final long MIN_PART_SIZE = 5L << 20;
+    // A MinIO container started next to the app may take a while to accept connections
+    private static final int BUCKET_CHECK_ATTEMPTS = 30;
+    private static final long BUCKET_CHECK_DELAY_MS = 2000;
+
+    private final URI endpoint;
+    private final URI publicEndpoint;
+    private final String region;
+    private final String bucket;
+    private final String accessKey;
+    private final String secretKey;
+    private final long partSize;
+    private final Duration presignTtl;
+    private final HttpClient http;
+
+    public S3BlobStore(URI endpoint, URI publicEndpoint, String region, String bucket,
+                       String accessKey, String secretKey, long partSize, Duration presignTtl) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("partSize must be at least 5MB: " + partSize);
+        }
+        this.endpoint = endpoint;
+        this.publicEndpoint = publicEndpoint;
+        this.region = region;
+        this.bucket = bucket;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.partSize = partSize;
+        this.presignTtl = presignTtl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    // Local stand-ins start out empty; a real bucket is expected to exist already
+    public void ensureBucket() throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                createBucketIfMissing();
+                return;
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                if (attempt == BUCKET_CHECK_ATTEMPTS) throw e;
+                logger.info("S3 endpoint {} not reachable yet ({}), retrying", endpoint, e.getMessage());
+            }
+            try {
+                Thread.sleep(BUCKET_CHECK_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Waiting for S3 endpoint " + endpoint + " interrupted");
+            }
+        }
+    }
+
+    private void createBucketIfMissing() throws IOException {
+        int status = send("HEAD", null, Map.of(), Map.of(), BodyPublishers.noBody(), EMPTY_SHA256).statusCode();
+        if (status == 404) {
+            expect(send("PUT", null, Map.of(), Map.of(), BodyPublishers.noBody(), EMPTY_SHA256), "create bucket");
+        } else if (status != 200) {
+            throw new IOException("Bucket " + bucket + " is not accessible: HTTP " + status);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        int status = send("HEAD", key, Map.of(), Map.of(), BodyPublishers.noBody(), EMPTY_SHA256).statusCode();
+        if (status == 404) return false;
+        if (status != 200) throw new IOException("S3 HEAD " + key + " failed: HTTP " + status);
+        return true;
+    }
+
+    @Override
+    public boolean put(String key, Path file, String contentType) throws IOException {
+        if (exists(key)) return false;
+        long size = Files.size(file);
+        Map<String, String> headers = Map.of("content-type", contentType, "cache-control", IMMUTABLE);
+        if (size <= partSize) {
+            expect(send("PUT", key, Map.of(), headers, BodyPublishers.ofFile(file), UNSIGNED_PAYLOAD), "PUT " + key);
+        } else {
+            putMultipart(key, file, size, headers);
+        }
+        return true;
+    }
+
+    // Read by the server itself (e.g. for resizing), so it's signed for the internal endpoint
+    @Override
+    public Resource get(String key) throws IOException {
+        return new UrlResource(presign(endpoint, key, Instant.now(), presignTtl));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<String> response = send("DELETE", key, Map.of(), Map.of(), BodyPublishers.noBody(), EMPTY_SHA256);
+        if (response.statusCode() != 204 && response.statusCode() != 200 && response.statusCode() != 404) {
+            throw new IOException("S3 DELETE " + key + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    @Override
+    public List<Blob> list(String after, int limit) throws IOException {
+        Map<String, String> query = new TreeMap<>(Map.of("list-type", "2", "max-keys", String.valueOf(limit)));
+        if (after != null) query.put("start-after", after);
+        HttpResponse<String> response = expect(send("GET", null, query, Map.of(), BodyPublishers.noBody(), EMPTY_SHA256),
+                "list " + bucket);
+        List<Blob> blobs = new ArrayList<>();
+        Matcher contents = CONTENTS.matcher(response.body());
+        while (contents.find()) {
+            String entry = contents.group(1);
+            blobs.add(new Blob(xmlValue(entry, "Key"), Long.parseLong(xmlValue(entry, "Size")),
+                    Instant.parse(xmlValue(entry, "LastModified"))));
+        }
+        return blobs;
+    }
+
+    // Signed at the start of the current half-TTL window, so it stays valid at least that long
+    @Override
+    public URI directUrl(String key) {
+        long window = Math.max(1, presignTtl.getSeconds() / 2);
+        Instant signedAt = Instant.ofEpochSecond(Instant.now().getEpochSecond() / window * window);
+        return presign(publicEndpoint, key, signedAt, presignTtl);
+    }
+
+    @Override
+    public Duration getDirectUrlValidity() {
+        return presignTtl.dividedBy(2);
+    }
+
+    @Override
+    public String getType() {
+        return "s3";
+    }
+
+    private void putMultipart(String key, Path file, long size, Map<String, String> headers) throws IOException {
+        HttpResponse<String> created = expect(send("POST", key, Map.of("uploads", ""), headers,
+                BodyPublishers.noBody(), EMPTY_SHA256), "create multipart upload " + key);
+        Matcher id = UPLOAD_ID.matcher(created.body());
+        if (!id.find()) throw new IOException("No UploadId in response for " + key);
+        String uploadId = id.group(1);
+        try {
+            List<String> etags = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize) {
+                long start = offset;
+                long length = Math.min(partSize, size - offset);
+                BodyPublisher part = BodyPublishers.fromPublisher(
+                        BodyPublishers.ofInputStream(() -> slice(file, start, length)), length);
+                Map<String, String> query = Map.of("partNumber", String.valueOf(etags.size() + 1), "uploadId", uploadId);
+                HttpResponse<String> response = expect(send("PUT", key, query, Map.of(), part, UNSIGNED_PAYLOAD),
+                        "upload part " + (etags.size() + 1) + " of " + key);
+                etags.add(response.headers().firstValue("ETag")
+                        .orElseThrow(() -> new IOException("No ETag for a part of " + key)));
+            }
+
+            StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < etags.size(); i++) {
+                xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                        .append(etags.get(i).replace("\"", "&quot;")).append("</ETag></Part>");
+            }
+            byte[] body = xml.append("</CompleteMultipartUpload>").toString().getBytes(StandardCharsets.UTF_8);
+            HttpResponse<String> completed = expect(send("POST", key, Map.of("uploadId", uploadId),
+                    Map.of("content-type", "application/xml"), BodyPublishers.ofByteArray(body), sha256Hex(body)),
+                    "complete multipart upload " + key);
+            // S3 can fail the completion after it has already sent 200
+            if (completed.body().contains("<Error>")) {
+                throw new IOException("Completing multipart upload of " + key + " failed: " + completed.body());
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                send("DELETE", key, Map.of("uploadId", uploadId), Map.of(), BodyPublishers.noBody(), EMPTY_SHA256);
+            } catch (IOException abortFailed) {
+                e.addSuppressed(abortFailed);
+            }
+            throw e;
+        }
+    }
+
+    private HttpResponse<String> send(String method, String key, Map<String, String> query,
+                                      Map<String, String> headers, BodyPublisher body, String payloadHash) throws IOException {
+        Instant now = Instant.now();
+        String path = path(endpoint, key);
+        String canonicalQuery = canonicalQuery(query);
+
+        TreeMap<String, String> signed = new TreeMap<>(headers);
+        signed.put("host", host(endpoint));
+        signed.put("x-amz-content-sha256", payloadHash);
+        signed.put("x-amz-date", AMZ_DATE.format(now));
+        String authorization = authorization(method, path, canonicalQuery, signed, payloadHash, now);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                        URI.create(base(endpoint) + path + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery)))
+                .timeout(Duration.ofMinutes(5))
+                .method(method, body)
+                .header("Authorization", authorization);
+        // The client sets Host itself, to the same value that was signed
+        signed.forEach((name, value) -> {
+            if (!name.equals("host")) request.header(name, value);
+        });
+        try {
+            return http.send(request.build(), BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("S3 " + method + " interrupted");
+        }
+    }
+
+    // Our keys are hex digits, slashes and an extension, so no XML entities to decode
+    private static String xmlValue(String xml, String element) throws IOException {
+        int start = xml.indexOf("<" + element + ">");
+        int end = xml.indexOf("</" + element + ">");
+        if (start < 0 || end < start) throw new IOException("No " + element + " in list response");
+        return xml.substring(start + element.length() + 2, end);
+    }
+
+    private static HttpResponse<String> expect(HttpResponse<String> response, String what) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 " + what + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+        return response;
+    }
+
+    // Not private so the SigV4 test vectors can reach the signing steps
+    String authorization(String method, String path, String canonicalQuery, TreeMap<String, String> headers,
+                  String payloadHash, Instant now) {
+        StringBuilder canonicalHeaders = new StringBuilder();
+        headers.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value.trim()).append('\n'));
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n" + signedHeaders + "\n" + payloadHash;
+        return ALGORITHM + " Credential=" + accessKey + "/" + scope(now) + ", SignedHeaders=" + signedHeaders
+                + ", Signature=" + signature(canonicalRequest, now);
+    }
+
+    URI presign(URI base, String key, Instant signedAt, Duration ttl) {
+        String path = path(base, key);
+        TreeMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope(signedAt));
+        query.put("X-Amz-Date", AMZ_DATE.format(signedAt));
+        query.put("X-Amz-Expires", String.valueOf(ttl.getSeconds()));
+        query.put("X-Amz-SignedHeaders", "host");
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalRequest = "GET\n" + path + "\n" + canonicalQuery + "\n"
+                + "host:" + host(base) + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        return URI.create(base(base) + path + "?" + canonicalQuery + "&X-Amz-Signature=" + signature(canonicalRequest, signedAt));
+    }
+
+    String signature(String canonicalRequest, Instant time) {
+        String stringToSign = ALGORITHM + "\n" + AMZ_DATE.format(time) + "\n" + scope(time) + "\n"
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), day(time));
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private String scope(Instant time) {
+        return day(time) + "/" + region + "/s3/aws4_request";
+    }
+
+    // Path-style: /bucket/key
+    private String path(URI base, String key) {
+        String prefix = base.getRawPath() == null ? "" : base.getRawPath().replaceAll("/+$", "");
+        return prefix + "/" + encode(bucket, false) + (key == null ? "" : "/" + encode(key, true));
+    }
+
+    private static String base(URI uri) {
+        return uri.getScheme() + "://" + host(uri);
+    }
+
+    private static String host(URI uri) {
+        return uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+    }
+
+    private static String day(Instant time) {
+        return AMZ_DATE.format(time).substring(0, 8);
+    }
+
+    static String canonicalQuery(Map<String, String> query) {
+        TreeMap<String, String> sorted = new TreeMap<>();
+        query.forEach((name, value) -> sorted.put(encode(name, false), encode(value, false)));
+        StringBuilder out = new StringBuilder();
+        sorted.forEach((name, value) -> {
+            if (!out.isEmpty()) out.append('&');
+            out.append(name).append('=').append(value);
+        });
+        return out.toString();
+    }
+
+    // RFC 3986 encoding as SigV4 defines it: everything but unreserved characters, uppercase hex
+    static String encode(String value, boolean keepSlash) {
+        StringBuilder out = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                out.append(c);
+            } else {
+                out.append('%').append(HexFormat.of().withUpperCase().toHexDigits(b));
+            }
+        }
+        return out.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // One part of the staged file, read as the client sends it
+    private static InputStream slice(Path file, long offset, long length) {
+        try {
+            InputStream in = Files.newInputStream(file);
+            in.skipNBytes(offset);
+            return new FilterInputStream(in) {
+                private long remaining = length;
+
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) return -1;
+                    int b = super.read();
+                    if (b >= 0) remaining--;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int off, int len) throws IOException {
+                    if (remaining <= 0) return -1;
+                    int n = super.read(buffer, off, (int) Math.min(len, remaining));
+                    if (n > 0) remaining -= n;
+                    return n;
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel (Varghese & Lauck). Scheduling and cancelling are O(1); each tick only
+ * looks at one bucket, so thousands of pending timeouts cost nothing until they are due.
+ *
+ * Expiry precision is one tick. Buckets are only touched by the ticker thread; other threads
+ * hand new timeouts over through a lock-free queue.
+ */
+public class HashedTimingWheel<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout<T>>[] buckets;
+    private final Queue<Timeout<T>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<T> onExpire;
+    private final ScheduledExecutorService ticker;
+    private final long startNanos;
+
+    // Only read and written by the ticker thread
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int wheelSize, Consumer<T> onExpire) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = wheelSize - 1;
+        this.buckets = (Queue<Timeout<T>>[]) new Queue<?>[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.onExpire = onExpire;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.startNanos = System.nanoTime();
+        ticker.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timeout<T> schedule(T item, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() - startNanos + unit.toNanos(delay);
+        // Tick n runs at (n + 1) * tickNanos, so this is the first tick at or after the deadline
+        long deadlineTick = Math.max((deadline + tickNanos - 1) / tickNanos - 1, 0);
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        try {
+            Timeout<T> added;
+            while ((added = pending.poll()) != null) {
+                if (added.cancelled) continue;
+                long remaining = Math.max(added.deadlineTick - currentTick, 0);
+                added.rounds = remaining / buckets.length;
+                buckets[(int) ((currentTick + remaining) & mask)].add(added);
+            }
+
+            Iterator<Timeout<T>> it = buckets[(int) (currentTick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.rounds <= 0) {
+                    it.remove();
+                    expire(timeout);
+                } else {
+                    timeout.rounds--;
+                }
+            }
+            currentTick++;
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-rate task and stop the wheel for good
+            logger.error("Timing wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void expire(Timeout<T> timeout) {
+        try {
+            onExpire.accept(timeout.item);
+        } catch (RuntimeException e) {
+            logger.error("Timeout handler failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        // Lazy: the entry is dropped the next time its bucket comes round
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.utils;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor (keyset) pagination over the primary key: {@code ?after=<id>&limit=<n>&sort=id|-id}.
+ * Each page is an index range scan starting at the cursor, so page 1000 costs the same as page 1.
+ */
+public final class Keyset {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final Long after;
+    private final int limit;
+    private final boolean descending;
+
+    private Keyset(Long after, int limit, boolean descending) {
+        this.after = after;
+        this.limit = limit;
+        this.descending = descending;
+    }
+
+    public static Keyset of(Long after, Integer limit, String sort) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        boolean descending = sort != null && (sort.equals("-id") || sort.equalsIgnoreCase("desc"));
+        return new Keyset(after, size, descending);
+    }
+
+    public boolean isDescending() { return descending; }
+
+    public int getLimit() { return limit; }
+
+    // The id to seek past; with no cursor this is the start of the index in the sort direction
+    public long cursor() {
+        if (after != null) return after;
+        return descending ? Long.MAX_VALUE : 0L;
+    }
+
+    public Pageable pageable() {
+        return PageRequest.of(0, limit, Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, "id"));
+    }
+
+    // Response body with the page and the cursor for the next one (null on the last page)
+    public <T> Map<String, Object> response(String message, List<T> rows, Function<T, Long> id) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", message);
+        response.put("data", rows);
+        response.put("limit", limit);
+        response.put("nextCursor", rows.size() < limit ? null : id.apply(rows.get(rows.size() - 1)));
+        return response;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo;
+
+import com.example.demo.models.Booking;
+import com.example.demo.models.Car;
+import com.example.demo.models.User;
+import com.example.demo.repositories.BookingRepository;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.utils.Keyset;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Statistics are opt-in at runtime; this context turns them on to pin the statement count of the list paths
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class BookingQueryCountTests {
+
+	private static final int BOOKINGS = 10;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private User user;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		user = userRepository.save(new User("stats-user", "stats-user@example.com", "secret"));
+		LocalDate start = LocalDate.now().plusYears(5);
+		for (int i = 0; i < BOOKINGS; i++) {
+			// A car per booking, so lazy loading would cost one select per row
+			Car car = carRepository.save(new Car("Make" + i, "Model" + i, "Sedan", 40.0 + i, null));
+			bookingRepository.save(new Booking(start.plusDays(i * 3L), start.plusDays(i * 3L + 2), user, car));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void summaryPageIsOneStatement() {
+		Keyset page = Keyset.of(null, BOOKINGS, null);
+		bookingRepository.findUserSummariesAfter(user.getId(), page.cursor(), page.pageable())
+				.forEach(b -> b.car().make());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void userBookingsFetchCarsAndUserInOneStatement() {
+		bookingRepository.findByUser(user).forEach(b -> {
+			b.getCar().getMake();
+			b.getUser().getUsername();
+		});
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void activeBookingsLoadWithoutTouchingCars() {
+		bookingRepository.findByEndDateAfter(LocalDate.now())
+				.forEach(b -> b.getCar().getId());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.demo;
+
+import com.example.demo.models.Car;
+import com.example.demo.payload.CarFacets;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.services.CarFacetService;
+import com.example.demo.services.CatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CarFacetServiceTests {
+
+	private CarRepository carRepository;
+	private CarFacetService facets;
+
+	// Buckets 0-50, 50-100, 100-200, 200+
+	@BeforeEach
+	void setUp() {
+		carRepository = mock(CarRepository.class);
+		when(carRepository.findAll()).thenReturn(List.of(
+				car(1, "SUV", 40.0, true, false),
+				car(2, "SUV", 120.0, false, false),
+				car(3, "Sedan", 75.0, true, false),
+				car(4, "Sedan", 250.0, true, true),
+				car(5, "Truck", 100.0, true, false)));
+		facets = new CarFacetService(carRepository, "50,100,200");
+		facets.build();
+	}
+
+	private static Car car(long id, String type, double price, boolean available, boolean outOfService) {
+		Car car = new Car("Make" + id, "Model" + id, type, price, null);
+		ReflectionTestUtils.setField(car, "id", id);
+		car.setAvailable(available);
+		car.setOutOfService(outOfService);
+		return car;
+	}
+
+	@Test
+	void bucketLabelsFollowTheConfiguredBounds() {
+		assertEquals(List.of("0-50", "50-100", "100-200", "200+"), facets.getPriceBuckets());
+		assertEquals(List.of("0-25", "25-100.5", "100.5+"),
+				new CarFacetService(carRepository, " 100.5, 25,,25 ").getPriceBuckets());
+	}
+
+	@Test
+	void unfilteredCountsCoverEveryCarInService() {
+		CarFacets result = facets.count(null, null, null);
+
+		// Car 4 is out of service and not counted anywhere
+		assertEquals(4, result.total());
+		assertEquals(Map.of("available", 3, "booked", 1), result.availability());
+		assertEquals(List.of("SUV", "Sedan", "Truck"), List.copyOf(result.types().keySet()));
+		assertEquals(Map.of("SUV", 2, "Sedan", 1, "Truck", 1), result.types());
+		// A price on a bound belongs to the bucket above it
+		assertEquals(Map.of("0-50", 1, "50-100", 1, "100-200", 2, "200+", 0), result.prices());
+	}
+
+	@Test
+	void eachFacetIgnoresItsOwnFilter() {
+		CarFacets result = facets.count(List.of("SUV"), null, true);
+
+		assertEquals(1, result.total());
+		assertEquals(Map.of("available", 1, "booked", 1), result.availability());
+		assertEquals(Map.of("SUV", 1, "Sedan", 1, "Truck", 1), result.types());
+		assertEquals(Map.of("0-50", 1, "50-100", 0, "100-200", 0, "200+", 0), result.prices());
+	}
+
+	@Test
+	void typesAreOredAndCombinedWithPrice() {
+		CarFacets result = facets.count(List.of("SUV", "Truck"), "100-200", null);
+
+		assertEquals(2, result.total());
+		assertEquals(Map.of("available", 1, "booked", 1), result.availability());
+		assertEquals(Map.of("SUV", 1, "Sedan", 0, "Truck", 1), result.types());
+	}
+
+	@Test
+	void unknownTypeMatchesNothing() {
+		CarFacets result = facets.count(List.of("Boat"), null, null);
+
+		assertEquals(0, result.total());
+		assertEquals(Map.of("available", 0, "booked", 0), result.availability());
+		assertEquals(Map.of("SUV", 2, "Sedan", 1, "Truck", 1), result.types());
+		assertEquals(Map.of("0-50", 0, "50-100", 0, "100-200", 0, "200+", 0), result.prices());
+	}
+
+	@Test
+	void changeEventMergesUpdatesInsertsAndDeletes() {
+		// 3 changes type and price, 6 is new, 2 is gone, 5 goes out of service
+		when(carRepository.findAllById(List.of(3L, 6L, 2L, 5L))).thenReturn(List.of(
+				car(3, "Truck", 30.0, true, false),
+				car(6, "Van", 60.0, true, false),
+				car(5, "Truck", 100.0, true, true)));
+
+		facets.onCatalogChanged(new CatalogChangedEvent(List.of(3L, 6L, 2L, 5L), true, false));
+
+		CarFacets result = facets.count(null, null, null);
+		assertEquals(3, result.total());
+		assertEquals(Map.of("available", 3, "booked", 0), result.availability());
+		assertEquals(Map.of("SUV", 1, "Truck", 1, "Van", 1), result.types());
+		assertEquals(Map.of("0-50", 2, "50-100", 1, "100-200", 0, "200+", 0), result.prices());
+	}
+
+	@Test
+	void carBackInServiceIsCountedAgain() {
+		when(carRepository.findAllById(List.of(4L))).thenReturn(List.of(car(4, "Sedan", 250.0, true, false)));
+
+		facets.onCatalogChanged(new CatalogChangedEvent(List.of(4L), true, false));
+
+		CarFacets result = facets.count(null, "200+", null);
+		assertEquals(1, result.total());
+		assertEquals(Map.of("available", 1, "booked", 0), result.availability());
+		assertEquals(Map.of("SUV", 0, "Sedan", 1, "Truck", 0), result.types());
+	}
+
+	@Test
+	void bulkChangeEventRebuildsFromTheTable() {
+		when(carRepository.findAll()).thenReturn(List.of(car(7, "Van", 500.0, false, false)));
+
+		facets.onCatalogChanged(new CatalogChangedEvent(List.of(), true, true));
+
+		CarFacets result = facets.count(null, null, null);
+		assertEquals(1, result.total());
+		assertEquals(Map.of("available", 0, "booked", 1), result.availability());
+		assertEquals(Map.of("Van", 1), result.types());
+	}
+}
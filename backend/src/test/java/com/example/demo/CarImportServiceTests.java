@@ -0,0 +1,116 @@
+package com.example.demo;
+
+import com.example.demo.models.Car;
+import com.example.demo.payload.CarImportReport;
+import com.example.demo.payload.CarImportReport.RowError;
+import com.example.demo.repositories.CarRepository;
+import com.example.demo.services.CarImportService;
+import com.example.demo.services.CarImportService.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs inside the test transaction, so imported rows are rolled back afterwards
+@SpringBootTest
+@Transactional
+class CarImportServiceTests {
+
+	@Autowired
+	private CarImportService carImportService;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Test
+	void invalidRowsAreReportedWithTheirLineAndSkipped() throws IOException {
+		String csv = """
+				make,model,type,pricePerDay,available
+				Toyota,Corolla,Sedan,45,true
+				,Civic,Sedan,40,true
+				Ford,"Transit
+				Custom",Van,abc,maybe
+				Kia,Rio,Sedan,-3
+
+				BMW,X5,SUV,120,false
+				""";
+
+		CarImportReport report = carImportService.importCars(input(csv), Format.CSV, false);
+
+		assertEquals(5, report.rows());
+		assertEquals(2, report.imported());
+		assertEquals(3, report.rejected());
+		assertEquals(List.of(
+				new RowError(3, "make is required"),
+				new RowError(4, "pricePerDay is not a number: abc; available must be true or false"),
+				new RowError(6, "Expected 5 fields but found 4")
+		), report.errors());
+		assertFalse(report.errorsTruncated());
+	}
+
+	@Test
+	void availableFalseImportsTheCarOutOfService() throws IOException {
+		carImportService.importCars(input("make,model,type,pricePerDay,available\nImportMake,Z4,Coupe,99,false\n"),
+				Format.CSV, false);
+
+		Car car = carRepository.findAll().stream()
+				.filter(c -> c.getMake().equals("ImportMake"))
+				.findFirst().orElseThrow();
+		assertTrue(car.isOutOfService());
+		assertTrue(car.isAvailable());
+	}
+
+	@Test
+	void unusableHeaderRejectsTheWholeFile() {
+		assertThrows(IllegalArgumentException.class, () -> carImportService.importCars(
+				input("make,model,colour,pricePerDay\n"), Format.CSV, false));
+		assertThrows(IllegalArgumentException.class, () -> carImportService.importCars(
+				input("make,model,type\n"), Format.CSV, false));
+		assertThrows(IllegalArgumentException.class, () -> carImportService.importCars(
+				input(""), Format.CSV, false));
+	}
+
+	@Test
+	void ndjsonRowsAreNumberedByLine() throws IOException {
+		String ndjson = """
+				{"make":"Audi","model":"A4","type":"Sedan","pricePerDay":70}
+
+				{"make":"Audi","model":
+				[1,2]
+				{"make":"Audi","model":"A6","type":"Sedan"}
+				""";
+
+		CarImportReport report = carImportService.importCars(input(ndjson), Format.NDJSON, false);
+
+		assertEquals(1, report.imported());
+		assertEquals(List.of(3L, 4L, 5L), report.errors().stream().map(RowError::line).toList());
+		assertEquals("pricePerDay is required", report.errors().get(2).error());
+	}
+
+	@Test
+	void dryRunValidatesWithoutWriting() throws IOException {
+		long before = carRepository.count();
+
+		CarImportReport report = carImportService.importCars(
+				input("make,model,type,pricePerDay\nDry,Run,Sedan,10\n"), Format.CSV, true);
+
+		assertEquals(1, report.imported());
+		assertTrue(report.dryRun());
+		assertEquals(before, carRepository.count());
+	}
+
+	private static InputStream input(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.demo;
+
+import com.example.demo.payload.CarImportReport;
+import com.example.demo.services.CarImportService;
+import com.example.demo.services.CarImportService.Format;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Not part of the default build: mvn test -Pperformance, against the database in application.properties
+@Tag("performance")
+@SpringBootTest
+@Transactional
+class CarImportThroughputTests {
+
+	private static final int ROWS = 100_000;
+	private static final long MAX_MILLIS = 30_000;
+
+	@Autowired
+	private CarImportService carImportService;
+
+	@Test
+	void hundredThousandRowsImportInSeconds() throws IOException {
+		StringBuilder csv = new StringBuilder("make,model,type,pricePerDay,imageUrl\n");
+		for (int i = 0; i < ROWS; i++) {
+			csv.append("Bulk,Model ").append(i).append(",Sedan,").append(30 + i % 70).append(",\n");
+		}
+
+		CarImportReport report = carImportService.importCars(
+				new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), Format.CSV, false);
+
+		assertEquals(ROWS, report.imported());
+		assertEquals(0, report.rejected());
+		assertTrue(report.elapsedMs() < MAX_MILLIS, ROWS + " rows took " + report.elapsedMs() + " ms");
+	}
+}
@@ -0,0 +1,73 @@
+package com.example.demo;
+
+import com.example.demo.utils.CsvReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTests {
+
+	@Test
+	void plainFieldsAndEmptyFields() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("a,b,c\n,x,\n"));
+
+		assertEquals(List.of("a", "b", "c"), csv.next());
+		assertEquals(List.of("", "x", ""), csv.next());
+		assertNull(csv.next());
+	}
+
+	@Test
+	void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("\"Mercedes, Benz\",\"the \"\"S\"\" class\",\"\"\n"));
+
+		assertEquals(List.of("Mercedes, Benz", "the \"S\" class", ""), csv.next());
+	}
+
+	@Test
+	void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("5\" wheels,x\n"));
+
+		assertEquals(List.of("5\" wheels", "x"), csv.next());
+	}
+
+	@Test
+	void crlfAndMissingFinalNewline() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("a,b\r\nc,d"));
+
+		assertEquals(List.of("a", "b"), csv.next());
+		assertEquals(List.of("c", "d"), csv.next());
+		assertNull(csv.next());
+	}
+
+	@Test
+	void lineBreaksInsideQuotesDontEndTheRecord() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("h\n\"one\ntwo\r\nthree\",x\nlast,y\n"));
+
+		csv.next();
+		assertEquals(List.of("one\ntwo\r\nthree", "x"), csv.next());
+		assertEquals(2, csv.getRecordLine());
+		assertEquals(List.of("last", "y"), csv.next());
+		assertEquals(5, csv.getRecordLine());
+	}
+
+	@Test
+	void unterminatedQuoteReportsTheLineItStartedOn() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader("a,b\nc,\"open\nstill open\n"));
+		csv.next();
+
+		IOException e = assertThrows(IOException.class, csv::next);
+		assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+	}
+
+	@Test
+	void emptyInputHasNoRecords() throws IOException {
+		assertNull(new CsvReader(new StringReader("")).next());
+	}
+}
@@ -0,0 +1,117 @@
+package com.example.demo;
+
+import com.example.demo.utils.HashedTimingWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTests {
+
+	private static final long TICK_MS = 10;
+
+	private HashedTimingWheel<String> wheel;
+
+	@AfterEach
+	void stopWheel() {
+		if (wheel != null) wheel.stop();
+	}
+
+	private HashedTimingWheel<String> wheel(int size, Consumer<String> onExpire) {
+		wheel = new HashedTimingWheel<>("test-wheel", TICK_MS, TimeUnit.MILLISECONDS, size, onExpire);
+		return wheel;
+	}
+
+	@Test
+	void wheelSizeMustBeAPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new HashedTimingWheel<String>("bad", TICK_MS, TimeUnit.MILLISECONDS, 6, item -> {}));
+	}
+
+	@Test
+	void firesNoEarlierThanTheDeadline() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		long[] firedAt = new long[1];
+		wheel(8, item -> {
+			firedAt[0] = System.nanoTime();
+			fired.countDown();
+		});
+
+		long scheduledAt = System.nanoTime();
+		wheel.schedule("a", 50, TimeUnit.MILLISECONDS);
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(firedAt[0] - scheduledAt);
+		assertTrue(elapsedMs >= 50 - TICK_MS, "fired after " + elapsedMs + " ms");
+	}
+
+	@Test
+	void delaysLongerThanOneRevolutionWaitForTheirRound() throws InterruptedException {
+		List<String> expired = new CopyOnWriteArrayList<>();
+		CountDownLatch fired = new CountDownLatch(2);
+		// 4 buckets of 10 ms: one revolution is 40 ms
+		wheel(4, item -> {
+			expired.add(item);
+			fired.countDown();
+		});
+
+		long scheduledAt = System.nanoTime();
+		wheel.schedule("late", 150, TimeUnit.MILLISECONDS);
+		wheel.schedule("early", 20, TimeUnit.MILLISECONDS);
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledAt);
+		assertEquals(List.of("early", "late"), expired);
+		assertTrue(elapsedMs >= 150 - TICK_MS, "fired after " + elapsedMs + " ms");
+	}
+
+	@Test
+	void cancelledTimeoutsNeverFire() throws InterruptedException {
+		List<String> expired = new CopyOnWriteArrayList<>();
+		CountDownLatch fired = new CountDownLatch(1);
+		wheel(8, item -> {
+			expired.add(item);
+			fired.countDown();
+		});
+
+		wheel.schedule("cancelled", 30, TimeUnit.MILLISECONDS).cancel();
+		wheel.schedule("kept", 80, TimeUnit.MILLISECONDS);
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+		assertEquals(List.of("kept"), expired);
+	}
+
+	@Test
+	void failingHandlerDoesNotStopTheWheel() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		wheel(8, item -> {
+			if (item.equals("boom")) throw new IllegalStateException("boom");
+			fired.countDown();
+		});
+
+		wheel.schedule("boom", 10, TimeUnit.MILLISECONDS);
+		wheel.schedule("after", 60, TimeUnit.MILLISECONDS);
+
+		assertTrue(fired.await(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void stoppedWheelFiresNothing() throws InterruptedException {
+		CountDownLatch fired = new CountDownLatch(1);
+		wheel(8, item -> fired.countDown());
+
+		wheel.schedule("a", 30, TimeUnit.MILLISECONDS);
+		wheel.stop();
+
+		assertFalse(fired.await(200, TimeUnit.MILLISECONDS));
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.demo;
+
+import com.example.demo.utils.Keyset;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetTests {
+
+	@Test
+	void limitDefaultsAndIsClamped() {
+		assertEquals(Keyset.DEFAULT_LIMIT, Keyset.of(null, null, null).getLimit());
+		assertEquals(1, Keyset.of(null, 0, null).getLimit());
+		assertEquals(1, Keyset.of(null, -5, null).getLimit());
+		assertEquals(20, Keyset.of(null, 20, null).getLimit());
+		assertEquals(Keyset.MAX_LIMIT, Keyset.of(null, 10_000, null).getLimit());
+	}
+
+	@Test
+	void sortParsing() {
+		assertFalse(Keyset.of(null, null, null).isDescending());
+		assertFalse(Keyset.of(null, null, "id").isDescending());
+		assertFalse(Keyset.of(null, null, "bogus").isDescending());
+		assertTrue(Keyset.of(null, null, "-id").isDescending());
+		assertTrue(Keyset.of(null, null, "DESC").isDescending());
+	}
+
+	@Test
+	void cursorStartsAtTheBeginningOfTheIndexInSortDirection() {
+		assertEquals(0L, Keyset.of(null, null, "id").cursor());
+		assertEquals(Long.MAX_VALUE, Keyset.of(null, null, "-id").cursor());
+		assertEquals(42L, Keyset.of(42L, null, "id").cursor());
+		assertEquals(42L, Keyset.of(42L, null, "-id").cursor());
+	}
+
+	@Test
+	void pageableIsTheFirstPageSortedById() {
+		Pageable ascending = Keyset.of(7L, 25, "id").pageable();
+		assertEquals(0, ascending.getPageNumber());
+		assertEquals(25, ascending.getPageSize());
+		assertEquals(Sort.Direction.ASC, ascending.getSort().getOrderFor("id").getDirection());
+
+		Pageable descending = Keyset.of(7L, 25, "-id").pageable();
+		assertEquals(Sort.Direction.DESC, descending.getSort().getOrderFor("id").getDirection());
+	}
+
+	@Test
+	void fullPageCarriesTheLastIdAsNextCursor() {
+		Map<String, Object> response = Keyset.of(null, 3, null).response("ok", List.of(4L, 9L, 12L), id -> id);
+
+		assertEquals("ok", response.get("message"));
+		assertEquals(List.of(4L, 9L, 12L), response.get("data"));
+		assertEquals(3, response.get("limit"));
+		assertEquals(12L, response.get("nextCursor"));
+	}
+
+	@Test
+	void shortPageIsTheLast() {
+		Map<String, Object> partial = Keyset.of(null, 3, null).response("ok", List.of(4L, 9L), id -> id);
+		assertNull(partial.get("nextCursor"));
+		assertTrue(partial.containsKey("nextCursor"));
+
+		Map<String, Object> empty = Keyset.of(null, 3, null).response("ok", List.<Long>of(), id -> id);
+		assertNull(empty.get("nextCursor"));
+	}
+}
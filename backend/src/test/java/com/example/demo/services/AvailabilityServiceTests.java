@@ -0,0 +1,67 @@
+package com.example.demo.services;
+
+import com.example.demo.repositories.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AvailabilityServiceTests {
+
+	private static final LocalDate TODAY = LocalDate.now();
+
+	private static LocalDate day(int offset) {
+		return TODAY.plusDays(offset);
+	}
+
+	@Test
+	void rangesAreHalfOpen() {
+		AvailabilityService.CarSchedule schedule = new AvailabilityService.CarSchedule();
+		assertTrue(schedule.tryAdd(new AvailabilityService.Interval(1L, day(5), day(10))));
+
+		assertFalse(schedule.isFree(day(9), day(12)));
+		assertFalse(schedule.isFree(day(0), day(6)));
+		assertTrue(schedule.isFree(day(10), day(12)));
+		assertTrue(schedule.isFree(day(0), day(5)));
+		assertFalse(schedule.tryAdd(new AvailabilityService.Interval(2L, day(7), day(8))));
+	}
+
+	@Test
+	void pruneDropsOnlyRangesThatHaveEnded() {
+		AvailabilityService.CarSchedule schedule = new AvailabilityService.CarSchedule();
+		schedule.add(new AvailabilityService.Interval(1L, day(-20), day(-10)));
+		// Two overlapping rows from the database are one range
+		schedule.add(new AvailabilityService.Interval(2L, day(-9), day(-4)));
+		schedule.add(new AvailabilityService.Interval(3L, day(-5), day(0)));
+		schedule.add(new AvailabilityService.Interval(4L, day(0), day(3)));
+
+		assertEquals(3, schedule.prune(TODAY));
+
+		assertTrue(schedule.isFree(day(-20), day(0)));
+		assertFalse(schedule.isFree(day(-1), day(1)));
+		assertEquals(0, schedule.prune(TODAY));
+		// Releasing a pruned booking is harmless
+		schedule.remove(1L, day(-20));
+		assertFalse(schedule.isFree(day(0), day(1)));
+	}
+
+	@Test
+	void reserveAndDailySweepDropEndedRanges() {
+		AvailabilityService availability = new AvailabilityService(mock(BookingRepository.class));
+		availability.reserve(1L, day(-10), day(-5), 10L);
+		availability.reserve(2L, day(-10), day(-5), 20L);
+
+		assertTrue(availability.reserve(1L, day(0), day(2), 11L));
+		assertTrue(availability.isAvailable(1L, day(-10), day(-5)));
+		assertFalse(availability.isAvailable(2L, day(-10), day(-5)));
+
+		availability.pruneEnded();
+
+		assertTrue(availability.isAvailable(2L, day(-10), day(-5)));
+		assertFalse(availability.isAvailable(1L, day(0), day(2)));
+	}
+}
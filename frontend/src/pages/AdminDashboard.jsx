@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { userAPI, carAPI, bookingAPI } from '../services/api';
+import { userAPI, carAPI, bookingAPI, analyticsAPI } from '../services/api';
 import { toast } from 'react-toastify';
 import { useAuth } from '../context/AuthContext';
 import './admin/AdminDashboard.css';
@@ -9,6 +9,7 @@ const AdminDashboard = () => {
   const [users, setUsers] = useState([]);
   const [cars, setCars] = useState([]);
   const [bookings, setBookings] = useState([]);
+  const [summary, setSummary] = useState(null);
   const [loading, setLoading] = useState(false);
   const [showModal, setShowModal] = useState(false);
   const [editingItem, setEditingItem] = useState(null);
@@ -33,6 +34,22 @@ const AdminDashboard = () => {
     }
   }, [activeTab, userIsAdmin]);
 
+  // Header numbers come from aggregate queries, not from the lists below
+  const fetchSummary = async () => {
+    try {
+      const response = await analyticsAPI.getSummary();
+      setSummary(response.data?.data || null);
+    } catch (error) {
+      console.error('Error fetching dashboard summary:', error);
+    }
+  };
+
+  useEffect(() => {
+    if (userIsAdmin) {
+      fetchSummary();
+    }
+  }, [userIsAdmin]);
+
   const fetchDataForTab = async (tab) => {
     if (!userIsAdmin) {
       console.error('❌ Access denied: User is not admin');
@@ -45,13 +62,13 @@ const AdminDashboard = () => {
       
       switch (tab) {
         case 'users':
-          response = await userAPI.getAllUsers();
+          response = await userAPI.listAllUsers();
           break;
         case 'cars':
-          response = await carAPI.getAllCars();
+          response = await carAPI.listAllCars();
           break;
         case 'bookings':
-          response = await bookingAPI.getAllBookings();
+          response = await bookingAPI.listAllBookings();
           break;
         default:
           return;
@@ -158,6 +175,29 @@ const AdminDashboard = () => {
   };
 
   // Car Management Functions
+  const importCars = async (e) => {
+    const file = e.target.files?.[0];
+    e.target.value = '';
+    if (!file) return;
+    try {
+      setLoading(true);
+      const response = await carAPI.importCars(file);
+      const report = response.data.data;
+      if (report.rejected > 0) {
+        const first = report.errors[0];
+        toast.warn(`Imported ${report.imported} cars, ${report.rejected} rows rejected (line ${first.line}: ${first.error})`);
+      } else {
+        toast.success(`Imported ${report.imported} cars`);
+      }
+      fetchDataForTab('cars');
+    } catch (error) {
+      console.error('Error importing cars:', error);
+      toast.error(error.message || 'Failed to import cars');
+    } finally {
+      setLoading(false);
+    }
+  };
+
   const deleteCar = async (carId) => {
     if (!window.confirm('Are you sure you want to delete this car?')) return;
     
@@ -184,7 +224,7 @@ const AdminDashboard = () => {
         year: car.year || new Date().getFullYear(),
         pricePerDay: car.pricePerDay || car.price || '',
         color: car.color || '',
-        available: car.available !== false,
+        available: !car.outOfService,
         features: Array.isArray(car.features) ? car.features.join(', ') : (car.features || ''),
         imageUrl: car.imageUrl || car.images?.[0] || ''
       });
@@ -209,8 +249,8 @@ const AdminDashboard = () => {
 
   const handleToggleAvailability = async (car) => {
     try {
-      await carAPI.toggleCarAvailability(car.id);
-      toast.success(`Car ${car.available ? 'marked as unavailable' : 'marked as available'}`);
+      await carAPI.updateCar(car.id, { ...car, outOfService: !car.outOfService });
+      toast.success(`Car ${car.outOfService ? 'returned to service' : 'taken out of service'}`);
       fetchDataForTab('cars');
     } catch (error) {
       console.error('Error updating car availability:', error);
@@ -285,7 +325,7 @@ const AdminDashboard = () => {
           year: parseInt(formData.year),
           pricePerDay: parseFloat(formData.pricePerDay),
           color: formData.color,
-          available: formData.available,
+          outOfService: !formData.available,
           features: formData.features.split(',').map(f => f.trim()).filter(f => f)
         };
 
@@ -365,24 +405,34 @@ const AdminDashboard = () => {
         </div>
       </div>
       
+      {summary && (
+        <div className="admin-summary">
+          <div><strong>{Math.round(summary.fleetUtilization * 100)}%</strong> fleet on rent today</div>
+          <div><strong>{summary.bookings.pickupsToday}</strong> pickups today</div>
+          <div><strong>{summary.bookings.returnsToday}</strong> returns today</div>
+          <div><strong>${summary.bookings.revenueThisMonth.toFixed(2)}</strong> booked this month</div>
+          <div><strong>${summary.bookings.revenue.toFixed(2)}</strong> booked all time</div>
+        </div>
+      )}
+
       <div className="admin-tabs">
         <button 
           className={activeTab === 'users' ? 'active' : ''}
           onClick={() => setActiveTab('users')}
         >
-          Users ({users.length})
+          Users ({summary?.totalUsers ?? users.length})
         </button>
         <button 
           className={activeTab === 'cars' ? 'active' : ''}
           onClick={() => setActiveTab('cars')}
         >
-          Cars ({cars.length})
+          Cars ({summary?.totalCars ?? cars.length})
         </button>
         <button 
           className={activeTab === 'bookings' ? 'active' : ''}
           onClick={() => setActiveTab('bookings')}
         >
-          Bookings ({bookings.length})
+          Bookings ({summary?.bookings?.total ?? bookings.length})
         </button>
       </div>
 
@@ -392,6 +442,12 @@ const AdminDashboard = () => {
             Add New {activeTab.slice(0, -1)}
           </button>
         )}
+        {activeTab === 'cars' && (
+          <label className="btn-primary">
+            Import CSV / NDJSON
+            <input type="file" accept=".csv,.ndjson,.jsonl" onChange={importCars} hidden />
+          </label>
+        )}
       </div>
 
       {loading && (
@@ -490,8 +546,8 @@ const AdminDashboard = () => {
                     <td>{car.year}</td>
                     <td>${car.pricePerDay || car.price}</td>
                     <td>
-                      <span className={`status-badge ${car.available ? 'available' : 'unavailable'}`}>
-                        {car.available ? 'Available' : 'Unavailable'}
+                      <span className={`status-badge ${car.available && !car.outOfService ? 'available' : 'unavailable'}`}>
+                        {car.outOfService ? 'Out of service' : car.available ? 'Available' : 'On rental'}
                       </span>
                     </td>
                     <td>
@@ -506,7 +562,7 @@ const AdminDashboard = () => {
                           className={`btn-warning btn-sm`}
                           onClick={() => handleToggleAvailability(car)}
                         >
-                          {car.available ? 'Make Unavailable' : 'Make Available'}
+                          {car.outOfService ? 'Return to Service' : 'Take Out of Service'}
                         </button>
                         <button 
                           className="btn-danger btn-sm"
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { bookingAPI, carAPI } from '../services/api';
 import { toast } from 'react-toastify';
 import { useAuth } from '../context/AuthContext';
@@ -13,6 +13,8 @@ const Booking = () => {
   const [calculatedCost, setCalculatedCost] = useState(0);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
+  // Kept across resubmits of the same booking after a network error
+  const pendingBooking = useRef(null);
   const { user, isAuthenticated, logout } = useAuth();
   const navigate = useNavigate();
   const location = useLocation();
@@ -43,6 +45,13 @@ const Booking = () => {
     const totalCost = days * dailyPrice;
     
     setCalculatedCost(totalCost);
+
+    // Replace the estimate with the server quote (weekend/season rates, long-rental discounts)
+    if (new Date(endDate) > new Date(startDate)) {
+      carAPI.getQuote(selectedCarData.id, startDate, endDate)
+        .then(result => setCalculatedCost(result.data?.data?.total ?? totalCost))
+        .catch(() => {});
+    }
     return totalCost;
   };
 
@@ -73,7 +82,7 @@ const Booking = () => {
   const fetchAvailableCars = async () => {
     try {
       setLoading(true);
-      const response = await carAPI.getAvailableCars();
+      const response = await carAPI.listAllCars();
       
       let carsData = [];
       if (response.data && Array.isArray(response.data)) {
@@ -84,9 +93,9 @@ const Booking = () => {
         carsData = response.data || [];
       }
       
-      // Filter only available cars
+      // Cars out on a rental today can still be booked for later dates; the server checks the dates
       const availableCars = carsData
-        .filter(car => car.available !== false)
+        .filter(car => !car.outOfService)
         .map(car => ({
           id: car.id || 0,
           make: car.make || 'Unknown Make',
@@ -146,8 +155,14 @@ const Booking = () => {
       };
 
       console.log('Creating booking with data:', bookingData);
-      
-      await bookingAPI.createBooking(bookingData);
+
+      const payload = JSON.stringify(bookingData);
+      if (pendingBooking.current?.payload !== payload) {
+        pendingBooking.current = { payload, key: crypto.randomUUID() };
+      }
+
+      await bookingAPI.createBooking(bookingData, pendingBooking.current.key);
+      pendingBooking.current = null;
       
       toast.success('Booking created successfully!');
       
@@ -162,6 +177,11 @@ const Booking = () => {
       
     } catch (error) {
       console.error('Booking error:', error);
+
+      // A network error (status 0) or a 5xx isn't a final answer, so a retry reuses the key
+      if (error.status !== 0 && !(error.status >= 500)) {
+        pendingBooking.current = null;
+      }
       
       if (error.response?.status === 401) {
         setError('Authentication failed. Please try logging in again.');
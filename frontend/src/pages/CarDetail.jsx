@@ -252,7 +252,7 @@ const CarDetail = () => {
   };
 
   const handleBookNow = () => {
-    if (car && car.available) {
+    if (car && !car.outOfService) {
       navigate('/booking', { state: { selectedCar: car } });
     } else {
       toast.error('This car is currently not available for booking');
@@ -331,7 +331,7 @@ const CarDetail = () => {
           <div className="car-detail-image-container">
             {car.imageUrl ? (
               <img
-                src={`http://localhost:8080${car.imageUrl}`}
+                src={`http://localhost:8080${car.largeUrl || car.imageUrl}`}
                 alt={`${car.make} ${car.model}`}
                 className="car-detail-image"
                 onError={(e) => {
@@ -344,9 +344,9 @@ const CarDetail = () => {
               </div>
             )}
             <div className={`car-detail-availability-badge ${
-              car.available ? 'car-detail-available' : 'car-detail-unavailable'
+              car.available && !car.outOfService ? 'car-detail-available' : 'car-detail-unavailable'
             }`}>
-              {car.available ? 'Available' : 'Not Available'}
+              {car.outOfService ? 'Not Available' : car.available ? 'Available' : 'On Rental Today'}
             </div>
           </div>
 
@@ -389,10 +389,10 @@ const CarDetail = () => {
               <div className="car-detail-actions">
                 <button
                   onClick={handleBookNow}
-                  disabled={!car.available}
+                  disabled={car.outOfService}
                   className="car-detail-book-btn"
                 >
-                  {car.available ? 'Book This Car' : 'Not Available'}
+                  {car.outOfService ? 'Not Available' : 'Book This Car'}
                 </button>
                 
                 <Link to="/cars" className="car-detail-back-btn">
@@ -146,6 +146,7 @@ import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { toast } from 'react-toastify';
 import axios from 'axios';
+import { carAPI } from '../services/api';
 import './CarList.css';
 
 const CarList = () => {
@@ -154,6 +155,30 @@ const CarList = () => {
   const [error, setError] = useState('');
   const [filter, setFilter] = useState('all'); // all, available, unavailable
   const [searchTerm, setSearchTerm] = useState('');
+  const [searchResults, setSearchResults] = useState(null); // null while not searching
+  const [suggestions, setSuggestions] = useState([]);
+  const [typeFilter, setTypeFilter] = useState('');
+  const [facets, setFacets] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null); // null once the last page is loaded
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // The list is served a page at a time; "Load more" fetches the page after the last car shown
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true);
+      const response = await axios.get('http://localhost:8081/api/cars', {
+        params: { after: nextCursor },
+        timeout: 10000,
+      });
+      setCars(prev => [...prev, ...(response.data.data || [])]);
+      setNextCursor(response.data.nextCursor ?? null);
+    } catch (err) {
+      console.error('Error fetching more cars:', err);
+      toast.error('Failed to load more cars');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
   useEffect(() => {
     const fetchCars = async () => {
@@ -167,6 +192,7 @@ const CarList = () => {
         
         if (response.data && response.data.data) {
           setCars(response.data.data);
+          setNextCursor(response.data.nextCursor ?? null);
           toast.success(`Loaded ${response.data.data.length} cars successfully!`);
         } else {
           throw new Error('Invalid response format');
@@ -191,25 +217,63 @@ const CarList = () => {
     fetchCars();
   }, []);
 
-  // Safe filtering function - handles null/undefined values
-  const filteredCars = cars.filter(car => {
-    // Handle filter
-    const matchesFilter = filter === 'all' || 
-                         (filter === 'available' && car.available) ||
-                         (filter === 'unavailable' && !car.available);
-    
-    // Handle search - safely check for null/undefined values
-    const safeMake = car.make ? car.make.toLowerCase() : '';
-    const safeModel = car.model ? car.model.toLowerCase() : '';
-    const safeType = car.type ? car.type.toLowerCase() : '';
-    const safeSearchTerm = searchTerm.toLowerCase();
-    
-    const matchesSearch = safeMake.includes(safeSearchTerm) ||
-                         safeModel.includes(safeSearchTerm) ||
-                         safeType.includes(safeSearchTerm);
-    
-    return matchesFilter && matchesSearch;
-  });
+  // Fleet-wide counts for the filter buttons; each count ignores its own filter
+  useEffect(() => {
+    const params = {};
+    if (typeFilter) params.type = typeFilter;
+    if (filter !== 'all') params.available = filter === 'available';
+    carAPI.getFacets(params)
+      .then((res) => setFacets(res.data.data))
+      .catch((err) => console.error('Failed to load car counts:', err));
+  }, [typeFilter, filter]);
+
+  // Search runs on the server's word index; debounced so fast typing sends one request
+  useEffect(() => {
+    const q = searchTerm.trim();
+    if (!q) {
+      setSearchResults(null);
+      setSuggestions([]);
+      return;
+    }
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const [hits, completions] = await Promise.all([
+          carAPI.searchText(q, 100),
+          carAPI.typeahead(q, 8),
+        ]);
+        if (!cancelled) {
+          setSearchResults(hits.data.data || []);
+          setSuggestions(completions.data.data || []);
+        }
+      } catch (err) {
+        if (!cancelled) console.error('Car search failed:', err);
+      }
+    }, 150);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [searchTerm]);
+
+  // Search results come back ranked; only the type and availability filters are applied here.
+  // Out-of-service cars can't be booked, so they are left out like in search and the counts
+  const typedCars = (searchResults ?? cars)
+    .filter(car => !car.outOfService)
+    .filter(car => !typeFilter || (car.type || '') === typeFilter);
+  const filteredCars = typedCars.filter(car =>
+    filter === 'all' ||
+    (filter === 'available' && car.available) ||
+    (filter === 'unavailable' && !car.available)
+  );
+
+  // Search results are counted as listed; otherwise the counts cover the whole fleet
+  const availableCount = searchResults || !facets
+    ? typedCars.filter(c => c.available).length
+    : facets.availability.available;
+  const bookedCount = searchResults || !facets
+    ? typedCars.filter(c => !c.available).length
+    : facets.availability.booked;
 
   const handleRetry = () => {
     window.location.reload();
@@ -270,28 +334,48 @@ const CarList = () => {
             value={searchTerm}
             onChange={(e) => setSearchTerm(e.target.value)}
             className="car-list-search-input"
+            list="car-list-suggestions"
           />
+          <datalist id="car-list-suggestions">
+            {suggestions.map((s) => (
+              <option key={s.term} value={searchTerm.replace(/\S*$/, s.term)}>
+                {s.cars} {s.cars === 1 ? 'car' : 'cars'}
+              </option>
+            ))}
+          </datalist>
           <span className="car-list-search-icon">🔍</span>
         </div>
 
         <div className="car-list-filters">
+          {facets && (
+            <select
+              value={typeFilter}
+              onChange={(e) => setTypeFilter(e.target.value)}
+              className="car-list-filter-btn"
+            >
+              <option value="">All Types</option>
+              {Object.entries(facets.types).filter(([type]) => type).map(([type, count]) => (
+                <option key={type} value={type}>{type} ({count})</option>
+              ))}
+            </select>
+          )}
           <button
             onClick={() => setFilter('all')}
             className={`car-list-filter-btn ${filter === 'all' ? 'active' : ''}`}
           >
-            All Cars ({cars.length})
+            All Cars ({availableCount + bookedCount})
           </button>
           <button
             onClick={() => setFilter('available')}
             className={`car-list-filter-btn ${filter === 'available' ? 'active' : ''}`}
           >
-            Available ({cars.filter(c => c.available).length})
+            Available ({availableCount})
           </button>
           <button
             onClick={() => setFilter('unavailable')}
             className={`car-list-filter-btn ${filter === 'unavailable' ? 'active' : ''}`}
           >
-            Booked ({cars.filter(c => !c.available).length})
+            Booked ({bookedCount})
           </button>
         </div>
       </div>
@@ -316,7 +400,7 @@ const CarList = () => {
             }
           </p>
           <button 
-            onClick={() => { setSearchTerm(''); setFilter('all'); }}
+            onClick={() => { setSearchTerm(''); setFilter('all'); setTypeFilter(''); }}
             className="car-list-empty-btn"
           >
             Show All Cars
@@ -330,7 +414,12 @@ const CarList = () => {
               <div className="car-list-image-container">
                 {car.imageUrl ? (
                   <img
-                    src={`http://localhost:8081${car.imageUrl}`}
+                    src={`http://localhost:8081${car.thumbnailUrl || car.imageUrl}`}
+                    srcSet={car.thumbnailUrl
+                      ? `http://localhost:8081${car.thumbnailUrl} 400w, http://localhost:8081${car.mediumUrl} 800w`
+                      : undefined}
+                    sizes="(max-width: 600px) 100vw, 400px"
+                    loading="lazy"
                     alt={`${car.make || 'Car'} ${car.model || ''}`}
                     className="car-list-image"
                     onError={(e) => {
@@ -406,6 +495,18 @@ const CarList = () => {
         </div>
       )}
 
+      {!searchResults && nextCursor !== null && (
+        <div className="car-list-load-more">
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            className="car-list-filter-btn"
+          >
+            {loadingMore ? 'Loading...' : 'Load more cars'}
+          </button>
+        </div>
+      )}
+
       {/* Footer */}
       <div className="car-list-footer">
         <p>Need help choosing? <Link to="/contact" className="car-list-footer-link">Contact our team</Link></p>
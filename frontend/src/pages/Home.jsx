@@ -16,7 +16,7 @@ export default function Home() {
 
   const fetchFeaturedCars = async () => {
     try {
-      const response = await carAPI.getAllCars();
+      const response = await carAPI.getAllCars({ limit: 6 });
       if (response.data && Array.isArray(response.data)) {
         setFeaturedCars(response.data.slice(0, 6));
       } else if (response.data && response.data.data) {
@@ -17,6 +17,8 @@ const Profile = () => {
   });
   const [originalData, setOriginalData] = useState({});
   const [bookings, setBookings] = useState([]);
+  const [bookingsCursor, setBookingsCursor] = useState(null); // null once the last page is loaded
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(false);
   const [saving, setSaving] = useState(false);
   const [editMode, setEditMode] = useState(false);
@@ -103,10 +105,11 @@ const Profile = () => {
     }
   };
 
-  const fetchUserBookings = async () => {
+  // Bookings come a page at a time; with a cursor the next page is appended
+  const fetchUserBookings = async (after) => {
     try {
-      setLoading(true);
-      const response = await bookingAPI.getMyBookings();
+      (after ? setLoadingMore : setLoading)(true);
+      const response = await bookingAPI.getMyBookings(after ? { after } : {});
       
       console.log('📋 Bookings API response:', response);
       
@@ -119,15 +122,17 @@ const Profile = () => {
         bookingsData = response.data || [];
       }
       
-      setBookings(bookingsData);
+      setBookings(prev => (after ? [...prev, ...bookingsData] : bookingsData));
+      setBookingsCursor(response.data?.nextCursor ?? null);
       console.log('✅ Bookings loaded:', bookingsData);
       
     } catch (error) {
       console.error('❌ Error fetching bookings:', error);
       toast.error('Failed to load bookings');
-      setBookings([]);
+      if (!after) setBookings([]);
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -462,6 +467,17 @@ const Profile = () => {
                 ))}
               </div>
             )}
+            {bookings.length > 0 && bookingsCursor !== null && (
+              <div className="bookings-load-more">
+                <button
+                  className="btn-view-details"
+                  onClick={() => fetchUserBookings(bookingsCursor)}
+                  disabled={loadingMore}
+                >
+                  {loadingMore ? 'Loading...' : 'Load more bookings'}
+                </button>
+              </div>
+            )}
           </div>
         )}
 
@@ -29,7 +29,7 @@ const CarManagement = () => {
   const fetchCars = async () => {
     try {
       setLoading(true);
-      const response = await carAPI.getAllCars();
+      const response = await carAPI.listAllCars();
       setCars(response.data || []);
     } catch (error) {
       console.error('Error fetching cars:', error);
@@ -54,6 +54,7 @@ const CarManagement = () => {
       
       const carData = {
         ...formData,
+        outOfService: !formData.available,
         year: parseInt(formData.year),
         pricePerDay: parseFloat(formData.pricePerDay),
         features: formData.features.split(',').map(f => f.trim()).filter(f => f)
@@ -96,7 +97,7 @@ const CarManagement = () => {
       year: car.year || '',
       pricePerDay: car.pricePerDay || car.price || '',
       color: car.color || '',
-      available: car.available !== false,
+      available: !car.outOfService,
       features: Array.isArray(car.features) ? car.features.join(', ') : '',
       imageUrl: car.imageUrl || car.images?.[0] || ''
     });
@@ -120,9 +121,9 @@ const CarManagement = () => {
     try {
       await carAPI.updateCar(car.id, {
         ...car,
-        available: !car.available
+        outOfService: !car.outOfService
       });
-      toast.success(`Car ${!car.available ? 'marked as available' : 'marked as unavailable'}`);
+      toast.success(`Car ${car.outOfService ? 'returned to service' : 'taken out of service'}`);
       fetchCars();
     } catch (error) {
       console.error('Error updating car availability:', error);
@@ -190,8 +191,8 @@ const CarManagement = () => {
                   <td>{car.year}</td>
                   <td>${car.pricePerDay || car.price}</td>
                   <td>
-                    <span className={`status-badge ${car.available ? 'available' : 'unavailable'}`}>
-                      {car.available ? 'Available' : 'Unavailable'}
+                    <span className={`status-badge ${car.available && !car.outOfService ? 'available' : 'unavailable'}`}>
+                      {car.outOfService ? 'Out of service' : car.available ? 'Available' : 'On rental'}
                     </span>
                   </td>
                   <td>
@@ -203,10 +204,10 @@ const CarManagement = () => {
                         Edit
                       </button>
                       <button 
-                        className={`btn-warning btn-sm ${car.available ? 'make-unavailable' : 'make-available'}`}
+                        className={`btn-warning btn-sm ${car.outOfService ? 'make-available' : 'make-unavailable'}`}
                         onClick={() => handleToggleAvailability(car)}
                       >
-                        {car.available ? 'Make Unavailable' : 'Make Available'}
+                        {car.outOfService ? 'Return to Service' : 'Take Out of Service'}
                       </button>
                       <button 
                         className="btn-danger btn-sm"
@@ -25,7 +25,7 @@ const UserManagement = () => {
   const fetchUsers = async () => {
     try {
       setLoading(true);
-      const response = await userAPI.getAllUsers();
+      const response = await userAPI.listAllUsers();
       setUsers(response.data || []);
     } catch (error) {
       console.error('Error fetching users:', error);
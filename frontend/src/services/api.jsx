@@ -91,6 +91,19 @@ export const apiHelper = {
     }
   },
   
+  // List endpoints return one keyset page ({ data, nextCursor }); this follows nextCursor
+  // until the last page and returns every row
+  fetchAllPages: async (url, params = {}) => {
+    const rows = [];
+    let after;
+    do {
+      const response = await axiosInstance.get(url, { params: { limit: 500, ...params, after } });
+      rows.push(...(response.data?.data || []));
+      after = response.data?.nextCursor;
+    } while (after !== null && after !== undefined);
+    return rows;
+  },
+
   validateBookingData: (bookingData) => {
     const errors = [];
     
@@ -257,6 +270,16 @@ export const carAPI = {
     }
   },
 
+  // Every page of /cars, for views that need the whole fleet (admin inventory, booking form)
+  listAllCars: async (params = {}) => {
+    try {
+      const cars = await apiHelper.fetchAllPages('/cars', params);
+      return { success: true, data: cars };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch cars.');
+    }
+  },
+
   getCarById: async (id) => {
     try {
       const response = await axiosInstance.get(`/cars/${id}`);
@@ -266,6 +289,58 @@ export const carAPI = {
     }
   },
 
+  // Server-side price for [start, end) including weekend/season rates and discounts
+  getQuote: async (id, start, end) => {
+    try {
+      const response = await axiosInstance.get(`/cars/${id}/quote`, { params: { start, end } });
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch price quote.');
+    }
+  },
+
+  // One request for a whole page of search results
+  getQuotes: async (ids, start, end) => {
+    try {
+      const response = await axiosInstance.get('/cars/quotes', {
+        params: { ids: ids.join(','), start, end },
+      });
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch price quotes.');
+    }
+  },
+
+  // Counts per availability, type and price range for the given filters
+  getFacets: async (params = {}) => {
+    try {
+      const response = await axiosInstance.get('/cars/facets', { params });
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch car counts.');
+    }
+  },
+
+  // Make/model/type word search, best matches first
+  searchText: async (q, limit = 20) => {
+    try {
+      const response = await axiosInstance.get('/cars/search/text', { params: { q, limit } });
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Car search failed.');
+    }
+  },
+
+  // Completions for the last word of q
+  typeahead: async (q, limit = 10) => {
+    try {
+      const response = await axiosInstance.get('/cars/typeahead', { params: { q, limit } });
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch suggestions.');
+    }
+  },
+
   searchCars: async (filters) => {
     try {
       const response = await axiosInstance.get('/cars/search', { params: filters });
@@ -303,6 +378,22 @@ export const carAPI = {
     }
   },
 
+  // CSV (header row) or NDJSON file; the response lists rejected rows by line
+  importCars: async (file, { dryRun = false } = {}) => {
+    try {
+      const formData = new FormData();
+      formData.append('file', file);
+      const response = await axiosInstance.post('/admin/cars/import', formData, {
+        params: { dryRun },
+        headers: { 'Content-Type': 'multipart/form-data' },
+        timeout: 5 * 60 * 1000,
+      });
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Car import failed.');
+    }
+  },
+
   toggleCarAvailability: async (id) => {
     try {
       const response = await axiosInstance.patch(`/admin/cars/${id}/availability`);
@@ -363,7 +454,8 @@ export const carAPI = {
 // ===================
 export const bookingAPI = {
 // In api.jsx - FIX THE BOOKING CREATE ENDPOINT
-  createBooking: async (bookingData) => {
+  // Pass the same idempotencyKey when retrying, so the server replays instead of booking twice
+  createBooking: async (bookingData, idempotencyKey = crypto.randomUUID()) => {
   try {
     console.log("📤 Sending booking data:", bookingData);
 
@@ -376,6 +468,7 @@ export const bookingAPI = {
     const response = await axiosInstance.post('/bookings', bookingData, {
       headers: {
         'Content-Type': 'application/json',
+        'Idempotency-Key': idempotencyKey,
       },
     });
 
@@ -405,6 +498,15 @@ export const bookingAPI = {
     }
   },
 
+  listAllBookings: async (params = {}) => {
+    try {
+      const bookings = await apiHelper.fetchAllPages('/bookings/all', params);
+      return { success: true, data: bookings };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch bookings.');
+    }
+  },
+
   getBookingById: async (id) => {
     try {
       const response = await axiosInstance.get(`/bookings/${id}`);
@@ -512,6 +614,15 @@ export const userAPI = {
     }
   },
 
+  listAllUsers: async (params = {}) => {
+    try {
+      const users = await apiHelper.fetchAllPages('/admin/users', params);
+      return { success: true, data: users };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch users.');
+    }
+  },
+
   getUserById: async (id) => {
     try {
       const response = await axiosInstance.get(`/admin/users/${id}`);
@@ -849,6 +960,16 @@ export const paymentAPI = {
 // ANALYTICS & DASHBOARD APIs
 // ===================
 export const analyticsAPI = {
+  // Counts, utilization, today's pickups/returns and revenue in one small response
+  getSummary: async () => {
+    try {
+      const response = await axiosInstance.get('/admin/summary');
+      return { success: true, data: response.data };
+    } catch (error) {
+      throw apiHelper.handleError(error, 'Failed to fetch dashboard summary.');
+    }
+  },
+
   getDashboardStats: async () => {
     try {
       const response = await axiosInstance.get('/admin/dashboard/stats');